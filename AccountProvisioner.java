@@ -0,0 +1,184 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk account provisioning, for onboarding a whole cooperative at once.
+ *
+ * Every account is checked with the sign-up rules ({@link AccountValidation}) and for duplicate
+ * usernames and emails, both within the batch (the first occurrence wins) and against existing
+ * accounts. These checks run in parallel across accounts. The accepted accounts are then
+ * committed with one {@link MarketplaceEngine#registerUsers} call: one journal write and one
+ * fsync for the whole batch.
+ */
+public class AccountProvisioner {
+
+    /** A rejected account: its row (file line, or 1-based position in the list), username and why. */
+    public static final class Rejection {
+        public final long row;
+        public final String username;
+        public final String reason;
+
+        Rejection(long row, String username, String reason) {
+            this.row = row;
+            this.username = username;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + row + " (" + username + "): " + reason;
+        }
+    }
+
+    public static final class Result {
+        public final List<FarmerHubApp.UserData> created;
+        public final List<Rejection> rejected;
+        public final long elapsedMillis;
+
+        Result(List<FarmerHubApp.UserData> created, List<Rejection> rejected, long elapsedMillis) {
+            this.created = created;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    private final MarketplaceEngine engine;
+
+    public AccountProvisioner(MarketplaceEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Provisions the accounts in a CSV file with a header naming the username, password and
+     * email columns. Rejected rows are written to {@code errorReport} (only if there are any;
+     * may be null). Call it off the EDT: it waits for the journal fsync.
+     *
+     * @throws IOException if the file cannot be read or has no such header
+     * @throws UncheckedIOException if the accounts cannot be saved (none are added)
+     */
+    public Result provisionFile(Path file, Path errorReport) throws IOException {
+        List<FarmerHubApp.UserData> accounts = new ArrayList<>();
+        List<Long> rows = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.next();
+            if (header == null) throw new IOException("The CSV file is empty; a header row is needed");
+            int user = column(header, "username"), pass = column(header, "password"), email = column(header, "email");
+            List<String> values;
+            while ((values = csv.next()) != null) {
+                accounts.add(new FarmerHubApp.UserData(field(values, user), field(values, pass), field(values, email)));
+                rows.add(csv.recordLine());
+            }
+        }
+        Result result = provision(accounts, rows.stream().mapToLong(Long::longValue).toArray());
+        if (errorReport != null) writeReport(result.rejected, errorReport);
+        return result;
+    }
+
+    /** Provisions a list of accounts; rejections are numbered by 1-based position. */
+    public Result provision(List<FarmerHubApp.UserData> accounts) {
+        long[] rows = new long[accounts.size()];
+        for (int i = 0; i < rows.length; i++) rows[i] = i + 1;
+        return provision(accounts, rows);
+    }
+
+    private Result provision(List<FarmerHubApp.UserData> accounts, long[] rows) {
+        long start = System.nanoTime();
+        int n = accounts.size();
+        String[] problems = new String[n];
+
+        // 1. Field rules, in parallel
+        IntStream.range(0, n).parallel().forEach(i -> problems[i] = validate(accounts.get(i)));
+
+        // 2. Duplicates within the batch: the lowest index claims each username and email
+        ConcurrentHashMap<String, Integer> usernameOwner = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Integer> emailOwner = new ConcurrentHashMap<>();
+        IntStream.range(0, n).parallel().filter(i -> problems[i] == null).forEach(i -> {
+            FarmerHubApp.UserData account = accounts.get(i);
+            usernameOwner.merge(account.username.toLowerCase(), i, Math::min);
+            emailOwner.merge(account.email.toLowerCase(), i, Math::min);
+        });
+
+        // 3. Against existing accounts and the claims above, in parallel
+        IntStream.range(0, n).parallel().filter(i -> problems[i] == null).forEach(i -> {
+            FarmerHubApp.UserData account = accounts.get(i);
+            int firstUser = usernameOwner.get(account.username.toLowerCase());
+            int firstEmail = emailOwner.get(account.email.toLowerCase());
+            if (firstUser != i) {
+                problems[i] = "username is already used on row " + rows[firstUser];
+            } else if (firstEmail != i) {
+                problems[i] = "email is already used on row " + rows[firstEmail];
+            } else if (engine.findUser(account.username) != null) {
+                problems[i] = "username already exists";
+            } else if (engine.findUserByEmail(account.email) != null) {
+                problems[i] = "email is already registered";
+            }
+        });
+
+        // 4. One commit for everything accepted
+        List<FarmerHubApp.UserData> accepted = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (problems[i] == null) accepted.add(accounts.get(i));
+        }
+        List<FarmerHubApp.UserData> created = engine.registerUsers(accepted);
+        Set<FarmerHubApp.UserData> createdSet = created.size() == accepted.size() ? null : new HashSet<>(created);
+
+        List<Rejection> rejected = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            FarmerHubApp.UserData account = accounts.get(i);
+            if (problems[i] == null && createdSet != null && !createdSet.contains(account)) {
+                problems[i] = "username or email was taken by a signup during provisioning";
+            }
+            if (problems[i] != null) rejected.add(new Rejection(rows[i], account.username, problems[i]));
+        }
+        return new Result(created, rejected, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** The sign-up screen's checks; returns the problem, or null if the account is acceptable. */
+    private static String validate(FarmerHubApp.UserData account) {
+        if (account.username.isEmpty() || account.password.isEmpty() || account.email.isEmpty()) {
+            return "username, password and email are all required";
+        }
+        if (account.username.length() < 4) return "username must be at least 4 characters long";
+        if (!AccountValidation.isValidEmail(account.email)) return "email '" + account.email + "' is not valid";
+        if (!AccountValidation.isValidPassword(account.password)) {
+            return "password must be 8+ characters with an uppercase letter, a digit and one of @#$%^&+=";
+        }
+        return null;
+    }
+
+    private static int column(List<String> header, String name) throws IOException {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) return i;
+        }
+        throw new IOException("The CSV header has no '" + name + "' column: " + header);
+    }
+
+    private static String field(List<String> values, int column) {
+        return column < values.size() ? values.get(column).trim() : "";
+    }
+
+    private static void writeReport(List<Rejection> rejected, Path errorReport) throws IOException {
+        Files.deleteIfExists(errorReport); // A stale report would look like this run's
+        if (rejected.isEmpty()) return;
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8))) {
+            out.write("row,username,error\n");
+            for (Rejection r : rejected) {
+                out.write(r.row + ",\"" + r.username.replace("\"", "\"\"") + "\",\"" + r.reason.replace("\"", "\"\"") + "\"\n");
+            }
+        }
+    }
+}
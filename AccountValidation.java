@@ -0,0 +1,70 @@
+/**
+ * Sign-up field rules, shared by the register screen, bulk provisioning and the benchmarks.
+ *
+ * The rules are the two regular expressions below. They are checked by hand-written single-pass
+ * scans that accept exactly the same strings, so validating an account compiles nothing and
+ * allocates nothing (the regexes used to be recompiled by {@code Pattern.matches} on every call,
+ * and the password one needed three lookahead passes).
+ */
+public final class AccountValidation {
+
+    // Password must contain at least one uppercase, one digit and one special char and be 8+ chars
+    static final String PASSWORD_REGEX = "^(?=.*[A-Z])(?=.*\\d)(?=.*[@#$%^&+=]).{8,}$";
+    static final String EMAIL_REGEX = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$";
+
+    private static final int MIN_PASSWORD_CHARS = 8;
+
+    private AccountValidation() {
+    }
+
+    /** Same as {@code Pattern.matches(PASSWORD_REGEX, password)}. */
+    public static boolean isValidPassword(String password) {
+        boolean upper = false, digit = false, special = false;
+        int chars = 0;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (isLineTerminator(c)) return false; // '.' does not match these
+            if (!Character.isLowSurrogate(c) || i == 0 || !Character.isHighSurrogate(password.charAt(i - 1))) {
+                chars++; // '.' matches a whole code point, so a surrogate pair counts once
+            }
+            if (c >= 'A' && c <= 'Z') upper = true;
+            else if (c >= '0' && c <= '9') digit = true;
+            else if (c == '@' || c == '#' || c == '$' || c == '%' || c == '^' || c == '&' || c == '+' || c == '=') special = true;
+        }
+        return upper && digit && special && chars >= MIN_PASSWORD_CHARS;
+    }
+
+    /** Same as {@code Pattern.matches(EMAIL_REGEX, email)}. */
+    public static boolean isValidEmail(String email) {
+        int at = -1;
+        int lastDot = -1;
+        for (int i = 0; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0) return false; // Neither part allows a second '@'
+                at = i;
+            } else if (c == '.') {
+                if (at >= 0) lastDot = i;
+            } else if (!isAsciiLetterOrDigit(c) && c != '-' && (at >= 0 || (c != '_' && c != '%' && c != '+'))) {
+                return false;
+            }
+        }
+        // Local part non-empty; domain = one or more chars, a dot, then 2 to 6 letters
+        if (at < 1 || lastDot < at + 2) return false;
+        int tld = email.length() - lastDot - 1;
+        if (tld < 2 || tld > 6) return false;
+        for (int i = lastDot + 1; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Long-lived table model for the cart screen. It mirrors the buyer's cart one line at a
+ * time: adding a new product inserts a row, adding more of a product updates that row
+ * only, and clearing the cart deletes the rows. The price cells are formatted once per
+ * change and cached, so repainting the table never formats anything. EDT only.
+ */
+public class CartTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int COL_ITEM = 0;
+    public static final int COL_QTY = 1;
+    public static final int COL_PRICE = 2;
+    public static final int COL_TOTAL = 3;
+
+    private final String[] columnNames = {"Item", "Qty", "Price", "Total"};
+
+    private final List<Line> lines = new ArrayList<>();
+    private final HashMap<Integer, Integer> rowsByProductId = new HashMap<>();
+
+    /** One table row, with its formatted cells cached. */
+    private static final class Line {
+        final FarmerHubApp.Product product;
+        final String priceText;
+        int quantity;
+        String totalText;
+
+        Line(FarmerHubApp.Product product, String priceText) {
+            this.product = product;
+            this.priceText = priceText;
+        }
+    }
+
+    /** Records the new quantity of a product's line, inserting the row if it is new. */
+    public void setQuantity(FarmerHubApp.Product product, int quantity) {
+        Integer row = rowsByProductId.get(product.id);
+        if (row == null) {
+            Line line = new Line(product, Money.format(product.pricePaise));
+            setLineQuantity(line, quantity);
+            int inserted = lines.size();
+            lines.add(line);
+            rowsByProductId.put(product.id, inserted);
+            fireTableRowsInserted(inserted, inserted);
+        } else {
+            setLineQuantity(lines.get(row), quantity);
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    private void setLineQuantity(Line line, int quantity) {
+        line.quantity = quantity;
+        line.totalText = Money.format(line.product.pricePaise * quantity);
+    }
+
+    /** Removes every row (after checkout or logout). */
+    public void clear() {
+        int n = lines.size();
+        if (n == 0) return;
+        lines.clear();
+        rowsByProductId.clear();
+        fireTableRowsDeleted(0, n - 1);
+    }
+
+    /** Sets the header texts, in column order. */
+    public void setColumnNames(String item, String qty, String price, String total) {
+        columnNames[COL_ITEM] = item;
+        columnNames[COL_QTY] = qty;
+        columnNames[COL_PRICE] = price;
+        columnNames[COL_TOTAL] = total;
+    }
+
+    @Override
+    public int getRowCount() {
+        return lines.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Line line = lines.get(row);
+        switch (column) {
+            case COL_ITEM: return line.product.name;
+            case COL_QTY: return line.quantity;
+            case COL_PRICE: return line.priceText;
+            default: return line.totalText;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Persistent, memory-mapped, columnar product catalog.
+ *
+ * Every product attribute lives in its own fixed-width column file, so opening a catalog
+ * with millions of listings only maps the files; nothing is deserialized until a row is
+ * actually read. Variable-length text goes to a separate string heap:
+ *
+ *   catalog.meta        magic, version, committed row count, heap end, dictionary size
+ *   price.col           8 bytes/row, price in paise
+ *   category.col        4 bytes/row, dictionary id
+ *   seller.col          4 bytes/row, dictionary id
+ *   name.col            4 bytes/row, offset into strings.heap
+ *   description.col     4 bytes/row, offset into strings.heap
+ *   strings.heap        [int length][UTF-8 bytes] entries
+ *   dictionary.dat      [int length][UTF-8 bytes] entries for categories and sellers
+ *
+ * Appends write the data files first; {@link #force()} syncs them and only then advances
+ * the counts in catalog.meta, so after a crash the catalog reopens at the last forced row.
+ * Reads are lock-free: appends publish through the volatile row count. A single mapping is
+ * limited to 2 GB, which bounds the string heap (roughly 10M typical listings).
+ */
+public class CatalogStore implements Closeable {
+
+    private static final int META_MAGIC = 0x46484354; // "FHCT"
+    private static final int META_VERSION = 1;
+    private static final int META_SIZE = 64;
+    private static final int OFF_ROWS = 8;
+    private static final int OFF_HEAP_END = 16;
+    private static final int OFF_DICT_COUNT = 24;
+
+    private static final int INITIAL_ROWS = 1024;
+
+    private final Path dir;
+    private final MappedByteBuffer meta;
+    private final FileChannel metaChannel;
+    private final Column prices;
+    private final Column categories;
+    private final Column sellers;
+    private final Column names;
+    private final Column descriptions;
+    private final Column heap;
+    private final FileChannel dictionaryChannel;
+
+    // Dictionary of category and seller strings; ids are positions in dictionary.dat.
+    // The array is replaced (never resized in place) so lock-free readers always see a full copy.
+    private volatile String[] dictionary = new String[16];
+    private int dictionarySize = 0;
+    private final HashMap<String, Integer> dictionaryIds = new HashMap<>();
+
+    // --- Written under "this", read lock-free ---
+    private volatile int rowCount;
+    private int heapEnd;
+
+    private CatalogStore(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+
+        metaChannel = FileChannel.open(dir.resolve("catalog.meta"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = metaChannel.size() == 0;
+        meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+        if (fresh) {
+            meta.putInt(0, META_MAGIC).putInt(4, META_VERSION);
+            meta.force();
+        } else if (meta.getInt(0) != META_MAGIC || meta.getInt(4) != META_VERSION) {
+            throw new IOException("Not a FarmerHub catalog: " + dir);
+        }
+        int rows = (int) meta.getLong(OFF_ROWS);
+        heapEnd = (int) meta.getLong(OFF_HEAP_END);
+        int dictCount = meta.getInt(OFF_DICT_COUNT);
+
+        prices = new Column(dir.resolve("price.col"), 8, rows);
+        categories = new Column(dir.resolve("category.col"), 4, rows);
+        sellers = new Column(dir.resolve("seller.col"), 4, rows);
+        names = new Column(dir.resolve("name.col"), 4, rows);
+        descriptions = new Column(dir.resolve("description.col"), 4, rows);
+        heap = new Column(dir.resolve("strings.heap"), 1, heapEnd);
+
+        Path dictionaryPath = dir.resolve("dictionary.dat");
+        long dictionaryEnd = loadDictionary(dictionaryPath, dictCount);
+        dictionaryChannel = FileChannel.open(dictionaryPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Entries past the committed count belong to rows that never got forced; drop them
+        if (dictionaryChannel.size() > dictionaryEnd) dictionaryChannel.truncate(dictionaryEnd);
+        rowCount = rows;
+    }
+
+    /** Opens (or creates) the catalog in the given directory. */
+    public static CatalogStore open(String dir) throws IOException {
+        return new CatalogStore(Paths.get(dir));
+    }
+
+    // ------------------------------------------------------------------
+    // *** Reading (lock-free) ***
+    // ------------------------------------------------------------------
+
+    public int size() {
+        return rowCount;
+    }
+
+    /** Price in paise. */
+    public long price(int row) {
+        return prices.buffer.getLong(row * 8);
+    }
+
+    public int categoryId(int row) {
+        return categories.buffer.getInt(row * 4);
+    }
+
+    public int sellerId(int row) {
+        return sellers.buffer.getInt(row * 4);
+    }
+
+    public String category(int row) {
+        return dictionary[categoryId(row)];
+    }
+
+    public String seller(int row) {
+        return dictionary[sellerId(row)];
+    }
+
+    public String dictionaryEntry(int id) {
+        return dictionary[id];
+    }
+
+    public String name(int row) {
+        return readString(heap.buffer, names.buffer.getInt(row * 4));
+    }
+
+    public String description(int row) {
+        return readString(heap.buffer, descriptions.buffer.getInt(row * 4));
+    }
+
+    /** Decodes one row into a Product object; the row number is its id. */
+    public FarmerHubApp.Product product(int row) {
+        FarmerHubApp.Product product = new FarmerHubApp.Product(name(row), description(row), category(row), price(row), seller(row));
+        product.id = row;
+        return product;
+    }
+
+    private static String readString(ByteBuffer buf, int offset) {
+        int length = buf.getInt(offset);
+        byte[] bytes = new byte[length];
+        buf.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Appending ***
+    // ------------------------------------------------------------------
+
+    /** Appends a product and returns its row number. Durable after the next {@link #force()}. */
+    public synchronized int append(FarmerHubApp.Product product) throws IOException {
+        int row = rowCount;
+        int nameOffset = appendString(product.name);
+        int descOffset = appendString(product.description);
+        int categoryId = dictionaryId(product.category);
+        int sellerId = dictionaryId(product.listedBy);
+
+        prices.ensureRows(row + 1).putLong(row * 8, product.pricePaise);
+        categories.ensureRows(row + 1).putInt(row * 4, categoryId);
+        sellers.ensureRows(row + 1).putInt(row * 4, sellerId);
+        names.ensureRows(row + 1).putInt(row * 4, nameOffset);
+        descriptions.ensureRows(row + 1).putInt(row * 4, descOffset);
+
+        rowCount = row + 1; // Publish to readers
+        return row;
+    }
+
+    private int appendString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int offset = heapEnd;
+        long end = (long) offset + 4 + bytes.length;
+        if (end > Integer.MAX_VALUE) throw new IOException("Catalog string heap is full (2 GB)");
+        MappedByteBuffer buf = heap.ensureRows((int) end);
+        buf.putInt(offset, bytes.length);
+        buf.put(offset + 4, bytes);
+        heapEnd = (int) end;
+        return offset;
+    }
+
+    private int dictionaryId(String value) throws IOException {
+        Integer id = dictionaryIds.get(value);
+        if (id != null) return id;
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes);
+        entry.flip();
+        long pos = dictionaryChannel.size();
+        while (entry.hasRemaining()) {
+            pos += dictionaryChannel.write(entry, pos);
+        }
+        return addDictionaryEntry(value);
+    }
+
+    private int addDictionaryEntry(String value) {
+        // Readers reach the array through a column value written after this, so publishing it first is enough
+        int id = dictionarySize;
+        String[] arr = dictionary;
+        if (id == arr.length) arr = Arrays.copyOf(arr, id * 2);
+        arr[id] = value;
+        dictionary = arr;
+        dictionarySize = id + 1;
+        dictionaryIds.put(value, id);
+        return id;
+    }
+
+    /** Loads the first {@code count} dictionary entries and returns the byte offset just past them. */
+    private long loadDictionary(Path path, int count) throws IOException {
+        if (count == 0 || !Files.exists(path)) return 0;
+        long validEnd = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                addDictionaryEntry(new String(bytes, StandardCharsets.UTF_8));
+                validEnd += 4 + bytes.length;
+            }
+        }
+        return validEnd;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Durability ***
+    // ------------------------------------------------------------------
+
+    /** Syncs all data files, then commits the row count to catalog.meta. */
+    public synchronized void force() throws IOException {
+        prices.buffer.force();
+        categories.buffer.force();
+        sellers.buffer.force();
+        names.buffer.force();
+        descriptions.buffer.force();
+        heap.buffer.force();
+        dictionaryChannel.force(false);
+
+        meta.putLong(OFF_ROWS, rowCount);
+        meta.putLong(OFF_HEAP_END, heapEnd);
+        meta.putInt(OFF_DICT_COUNT, dictionarySize);
+        meta.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        prices.channel.close();
+        categories.channel.close();
+        sellers.channel.close();
+        names.channel.close();
+        descriptions.channel.close();
+        heap.channel.close();
+        dictionaryChannel.close();
+        metaChannel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogStore[" + dir + ", " + rowCount + " rows]";
+    }
+
+    // ------------------------------------------------------------------
+    // *** Column file ***
+    // ------------------------------------------------------------------
+
+    /**
+     * One fixed-width column (or the byte-addressed string heap with width 1), mapped
+     * read-write with spare capacity. Growing remaps a larger region; readers holding
+     * the old buffer keep seeing valid data because the file only ever gets longer.
+     */
+    private static final class Column {
+        final FileChannel channel;
+        final int width;
+        volatile MappedByteBuffer buffer;
+
+        Column(Path path, int width, int rows) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.width = width;
+            long needed = (long) Math.max(rows, INITIAL_ROWS) * width;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(needed, channel.size()));
+        }
+
+        MappedByteBuffer ensureRows(int rows) throws IOException {
+            long needed = (long) rows * width;
+            if (needed > buffer.capacity()) {
+                long grown = Math.min(Integer.MAX_VALUE, Math.max(needed, (long) buffer.capacity() * 2));
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, grown);
+            }
+            return buffer;
+        }
+    }
+}
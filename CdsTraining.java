@@ -0,0 +1,150 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.swing.*;
+
+/**
+ * Headless training run for an AppCDS archive. It walks the login, dashboard, marketplace
+ * and cart flows against a throwaway data directory, creating the same Swing components
+ * and engine structures the real screens use, so that running it under
+ * {@code -XX:ArchiveClassesAtExit} captures the classes a counter terminal loads before
+ * it can take a login:
+ *
+ *   java -XX:ArchiveClassesAtExit=farmerhub.jsa FarmerHubApp --cds-train
+ *   java -XX:SharedArchiveFile=farmerhub.jsa FarmerHubApp
+ *
+ * Without a display no window (and no native toolkit) is created; those classes are not
+ * archived, but they are a small part of the startup class set. StartupBenchmark measures
+ * the result.
+ */
+public final class CdsTraining {
+
+    private CdsTraining() {
+    }
+
+    public static void run() throws Exception {
+        StartupTimer.setPrinting(true);
+        long start = StartupTimer.start();
+        Path dir = Files.createTempDirectory("farmerhub-cds");
+        MarketplaceEngine engine = new MarketplaceEngine();
+        try {
+            // Startup: fonts, translations, stored users and catalog
+            FontService fonts = FontService.probe();
+            Localizer texts = new Localizer();
+            for (TextKey key : TextKey.values()) {
+                texts.put(key, new String[]{key.name(), "తెలుగు", "தமிழ்", "हिन्दी"});
+            }
+            engine.openUserJournal(dir.resolve("users").toString(), null);
+            engine.openCatalog(dir.resolve("catalog").toString());
+
+            // Login card, then a login by username and by email
+            JPanel login = loginCard(fonts, texts);
+            engine.registerUser(new FarmerHubApp.UserData("trainer", "Pass123!", "trainer@farmerhub.test"));
+            engine.findUserByLogin("trainer");
+            engine.findUserByLogin("trainer@farmerhub.test");
+            StartupTimer.phase("training login", start);
+            System.out.println(StartupBenchmark.READY_MARKER + " " + StartupTimer.finishTimes().get("training login"));
+
+            // Dashboard with its menu
+            JMenuBar menuBar = new JMenuBar();
+            JMenu menu = new JMenu("☰ Menu");
+            menu.add(new JMenuItem(texts.text(TextKey.Help)));
+            menu.addSeparator();
+            menuBar.add(menu);
+            JPanel dashboard = new JPanel(new GridLayout(3, 2, 25, 25));
+            for (TextKey key : new TextKey[]{TextKey.Feature1, TextKey.Feature2, TextKey.Feature3, TextKey.Feature4, TextKey.Feature5}) {
+                JButton button = new JButton(texts.text(key));
+                button.setFont(fonts.emoji(Font.BOLD, 16));
+                dashboard.add(button);
+            }
+
+            // Marketplace: list, browse, search and paint the grid
+            for (int i = 0; i < 300; i++) {
+                engine.listProduct(new FarmerHubApp.Product("Produce " + i, "Fresh from farm " + i,
+                        MarketplaceEngine.CATEGORIES.get(i % MarketplaceEngine.CATEGORIES.size()), Money.rupees(20 + i), "seller" + (i % 7)));
+            }
+            engine.flushCatalog();
+            ProductGrid grid = new ProductGrid(p -> { });
+            grid.setFonts(fonts.text(Font.BOLD, 14), fonts.text(Font.ITALIC, 12), fonts.text(Font.BOLD, 14), fonts.text(Font.BOLD, 14));
+            grid.setAddLabel(texts.text(TextKey.AddCart));
+            grid.setProducts(engine.browse(MarketplaceEngine.ALL_CATEGORIES));
+            grid.setProducts(engine.browse("Fruits"));
+            List<FarmerHubApp.Product> hits = engine.search("fresh farm", 50);
+            grid.setProducts(hits);
+            JScrollPane scroll = new JScrollPane(grid);
+            scroll.setSize(900, 600);
+            scroll.doLayout();
+            paint(scroll);
+
+            // Cart and checkout
+            MarketplaceEngine.Cart cart = engine.openCart();
+            CartTableModel model = new CartTableModel();
+            JTable table = new JTable(model);
+            for (FarmerHubApp.Product p : hits.subList(0, Math.min(5, hits.size()))) {
+                model.setQuantity(p, cart.add(p));
+                model.setQuantity(p, cart.add(p));
+            }
+            Money.format(cart.subtotal());
+            JScrollPane tableScroll = new JScrollPane(table);
+            tableScroll.setSize(600, 300);
+            tableScroll.doLayout();
+            paint(tableScroll);
+            engine.checkout(cart);
+            model.clear();
+
+            paint(login);
+            new JOptionPane("Checkout Successful!", JOptionPane.INFORMATION_MESSAGE);
+            StartupTimer.phase("training flows", start);
+        } finally {
+            engine.closeUserJournal();
+            engine.closeCatalog();
+            deleteRecursively(dir);
+        }
+    }
+
+    private static JPanel loginCard(FontService fonts, Localizer texts) {
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        JLabel title = new JLabel();
+        title.setFont(fonts.text(Font.BOLD, 18));
+        texts.bind(title::setText, TextKey.LoginTitle);
+        panel.add(title, gbc);
+        JTextField user = new JTextField(15);
+        user.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.GRAY, 1, true),
+                BorderFactory.createEmptyBorder(6, 8, 6, 8)));
+        panel.add(user, gbc);
+        panel.add(new JPasswordField(15), gbc);
+        panel.add(new JComboBox<>(new String[]{"English", "తెలుగు", "தமிழ்", "हिन्दी"}), gbc);
+        JButton loginBtn = new JButton();
+        texts.bind(loginBtn::setText, TextKey.LoginBtn);
+        panel.add(loginBtn, gbc);
+        texts.setLanguage(1);
+        texts.setLanguage(0);
+        panel.setSize(800, 600);
+        panel.doLayout();
+        return panel;
+    }
+
+    private static void paint(JComponent component) {
+        BufferedImage image = new BufferedImage(Math.max(1, component.getWidth()), Math.max(1, component.getHeight()), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            component.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
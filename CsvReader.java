@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader for the bulk importers: comma separated, and double-quoted
+ * fields may contain commas, doubled quotes and newlines. Blank lines are skipped and a leading
+ * byte order mark is ignored. Reads through its own buffer, one record at a time.
+ */
+public final class CsvReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[1 << 16];
+    private int pos;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+    private final StringBuilder field = new StringBuilder();
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Line number on which the record last returned by {@link #next} starts. */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * The next record's fields, or null at end of input.
+     *
+     * @throws IOException if reading fails or a quoted field is never closed
+     */
+    public List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') pos++;
+        }
+        while (true) {
+            recordLine = line;
+            List<String> values = readRecord();
+            if (values == null) return null;
+            if (values.size() > 1 || !values.get(0).isEmpty()) return values;
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        if (peek() < 0) return null;
+        List<String> values = new ArrayList<>();
+        while (true) {
+            field.setLength(0);
+            int c = peek();
+            if (c == '"') {
+                long startLine = line;
+                read();
+                while (true) {
+                    c = read();
+                    if (c < 0) throw new IOException("Unterminated quoted field starting on line " + startLine);
+                    if (c == '"') {
+                        if (peek() != '"') break;
+                        read();
+                    }
+                    field.append((char) c);
+                }
+            }
+            // Unquoted text, or anything between a closing quote and the separator (kept, as spreadsheets do)
+            while ((c = peek()) >= 0 && c != ',' && c != '\n' && c != '\r') field.append((char) read());
+            values.add(field.toString());
+            c = read();
+            if (c == ',') continue;
+            if (c == '\r' && peek() == '\n') read();
+            return values;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            pos++;
+            if (c == '\n') line++;
+        }
+        return c;
+    }
+}
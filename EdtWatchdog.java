@@ -0,0 +1,352 @@
+import java.awt.BorderLayout;
+import java.awt.EventQueue;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Frame;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import javax.swing.*;
+
+/**
+ * Opt-in watchdog for the Event Dispatch Thread, enabled with {@code -Dfarmerhub.watchdog=true}.
+ *
+ * Two things are recorded:
+ * <ul>
+ *   <li>Per-action latency: handlers wrap their work in {@link #track}, and the time spent is added
+ *       to that action's histogram. Spans end before any result dialog is shown, because a modal
+ *       dialog runs its own event loop and the time a user takes to dismiss it is not a freeze.</li>
+ *   <li>Stalls: a sampler thread posts a heartbeat to the EDT every {@value #SAMPLE_MS} ms. If one
+ *       waits longer than the stall threshold ({@code -Dfarmerhub.watchdog.stallMs}, default 200),
+ *       the EDT's stack is captured along with the action in progress (or the one that ran last).</li>
+ * </ul>
+ * The report is shown by {@link #showReport} and written to {@code -Dfarmerhub.watchdog.file}
+ * (default edt-watchdog.txt) on request and at exit. When disabled, {@link #track} returns a shared
+ * no-op span and no thread is started.
+ */
+public final class EdtWatchdog {
+
+    /** The user actions that get their own latency histogram. */
+    public enum Action {
+        LOGIN("login"),
+        REGISTER("register"),
+        FILTER("filter"),
+        SEARCH("search"),
+        ADD_TO_CART("add to cart"),
+        LANGUAGE_SWITCH("language switch"),
+        CHECKOUT("checkout");
+
+        final String label;
+
+        Action(String label) {
+            this.label = label;
+        }
+    }
+
+    /** Ends a tracked action; close it in a finally block on the EDT. */
+    public interface Span {
+        void close();
+    }
+
+    private static final long SAMPLE_MS = 20;
+    private static final int MAX_STALLS = 50;
+    private static final int MAX_FRAMES = 40;
+    private static final Span NO_SPAN = () -> { };
+
+    private final boolean enabled;
+    private final long stallNanos;
+    private final Path file;
+
+    // --- Latency histograms (one per action, plus heartbeat queue delay) ---
+    private final Map<Action, Histogram> actions = new EnumMap<>(Action.class);
+    private final Histogram responsiveness = new Histogram();
+
+    // --- Action in progress, for stall attribution (written on the EDT, read by the sampler) ---
+    private volatile Action currentAction;
+    private volatile Action lastAction;
+
+    // --- Heartbeat state ---
+    private volatile Thread edtThread;
+    private volatile long beatPostedNanos; // 0 when no heartbeat is pending
+
+    // --- Stalls, most recent last (guarded by stalls) ---
+    private final ArrayDeque<Stall> stalls = new ArrayDeque<>();
+    private Stall openStall;
+    private long stallCount;
+
+    /** One stall: when it began, what was running, where the EDT was, and how long it lasted. */
+    private static final class Stall {
+        final long postedNanos;
+        final LocalTime at;
+        final String during;
+        final StackTraceElement[] stack;
+        long durationNanos = -1; // Set when the delayed heartbeat finally runs
+
+        Stall(long postedNanos, LocalTime at, String during, StackTraceElement[] stack) {
+            this.postedNanos = postedNanos;
+            this.at = at;
+            this.during = during;
+            this.stack = stack;
+        }
+    }
+
+    private EdtWatchdog(boolean enabled, long stallMillis, Path file) {
+        this.enabled = enabled;
+        this.stallNanos = stallMillis * 1_000_000L;
+        this.file = file;
+        for (Action action : Action.values()) {
+            actions.put(action, new Histogram());
+        }
+    }
+
+    /** Creates the watchdog from the {@code farmerhub.watchdog*} system properties and starts sampling if enabled. */
+    public static EdtWatchdog fromSystemProperties() {
+        EdtWatchdog watchdog = new EdtWatchdog(Boolean.getBoolean("farmerhub.watchdog"),
+                Long.getLong("farmerhub.watchdog.stallMs", 200),
+                Paths.get(System.getProperty("farmerhub.watchdog.file", "edt-watchdog.txt")));
+        if (watchdog.enabled) {
+            Thread sampler = new Thread(watchdog::sampleLoop, "FarmerHub-EdtWatchdog");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+        return watchdog;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Action spans ***
+    // ------------------------------------------------------------------
+
+    /** Starts timing an action; closing the span records its latency. EDT only. */
+    public Span track(Action action) {
+        if (!enabled) return NO_SPAN;
+        long start = System.nanoTime();
+        Action outer = currentAction;
+        currentAction = action;
+        lastAction = action;
+        return () -> {
+            actions.get(action).record(System.nanoTime() - start);
+            currentAction = outer;
+        };
+    }
+
+    // ------------------------------------------------------------------
+    // *** Stall sampling ***
+    // ------------------------------------------------------------------
+
+    private void sampleLoop() {
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long posted = beatPostedNanos;
+            if (posted == 0) {
+                long now = System.nanoTime();
+                beatPostedNanos = now;
+                EventQueue.invokeLater(() -> heartbeat(now));
+            } else if (System.nanoTime() - posted > stallNanos) {
+                captureStall(posted);
+            }
+        }
+    }
+
+    private void heartbeat(long posted) {
+        edtThread = Thread.currentThread(); // The EDT is replaced if a handler throws
+        long delay = System.nanoTime() - posted;
+        responsiveness.record(delay);
+        synchronized (stalls) {
+            if (openStall != null && openStall.postedNanos == posted) {
+                openStall.durationNanos = delay;
+                openStall = null;
+            }
+        }
+        beatPostedNanos = 0;
+    }
+
+    /** Captures the EDT stack once per delayed heartbeat. */
+    private void captureStall(long posted) {
+        Thread edt = edtThread;
+        if (edt == null) return; // No heartbeat has run yet, so the EDT is not known
+        synchronized (stalls) {
+            if (openStall != null && openStall.postedNanos == posted) return;
+        }
+        Action current = currentAction;
+        Action last = lastAction;
+        String during = current != null ? current.label : last != null ? "untracked work after " + last.label : "untracked work";
+        Stall stall = new Stall(posted, LocalTime.now(), during, edt.getStackTrace());
+        synchronized (stalls) {
+            openStall = stall;
+            stallCount++;
+            if (stalls.size() == MAX_STALLS) stalls.removeFirst();
+            stalls.addLast(stall);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Report ***
+    // ------------------------------------------------------------------
+
+    /** The latency histograms and the most recent stall traces as text. */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("FarmerHub EDT watchdog report, ")
+          .append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append('\n');
+        if (!enabled) {
+            return sb.append("Watchdog is off; start the app with -Dfarmerhub.watchdog=true.\n").toString();
+        }
+        sb.append(String.format("Stall threshold %d ms, heartbeat every %d ms%n%n", stallNanos / 1_000_000, SAMPLE_MS));
+
+        sb.append(String.format("%-22s %7s %9s %9s %9s %9s %9s%n", "Latency (ms)", "count", "mean", "p50 <=", "p90 <=", "p99 <=", "max"));
+        for (Map.Entry<Action, Histogram> e : actions.entrySet()) {
+            e.getValue().appendSummary(sb, e.getKey().label);
+        }
+        responsiveness.appendSummary(sb, "EDT heartbeat delay");
+
+        sb.append("\nHistograms (count per bucket, ms upper bound)\n");
+        for (Map.Entry<Action, Histogram> e : actions.entrySet()) {
+            e.getValue().appendBuckets(sb, e.getKey().label);
+        }
+        responsiveness.appendBuckets(sb, "EDT heartbeat delay");
+
+        List<Stall> recent;
+        long total;
+        synchronized (stalls) {
+            recent = new ArrayList<>(stalls);
+            total = stallCount;
+        }
+        sb.append(String.format("%nStalls over %d ms: %d (showing the last %d, newest first)%n",
+                stallNanos / 1_000_000, total, recent.size()));
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            Stall stall = recent.get(i);
+            long duration;
+            synchronized (stalls) {
+                duration = stall.durationNanos;
+            }
+            sb.append(String.format("%n%s  %s during %s%n", stall.at.format(DateTimeFormatter.ISO_LOCAL_TIME),
+                    duration < 0 ? "still blocked" : String.format("%.0f ms", duration / 1e6), stall.during));
+            int frames = Math.min(stall.stack.length, MAX_FRAMES);
+            for (int f = 0; f < frames; f++) {
+                sb.append("    at ").append(stall.stack[f]).append('\n');
+            }
+            if (stall.stack.length > frames) {
+                sb.append("    ... ").append(stall.stack.length - frames).append(" more\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Writes the report to the configured file (or the given one). Does disk I/O; keep it off the EDT. */
+    public Path dumpTo(Path target) throws IOException {
+        Path out = target != null ? target : file;
+        Files.write(out, report().getBytes(StandardCharsets.UTF_8));
+        return out;
+    }
+
+    /** Shows the report in a non-modal window with Refresh and Save buttons; saving runs on {@code io}. */
+    public void showReport(Frame owner, Executor io) {
+        JDialog dialog = new JDialog(owner, "EDT Watchdog", false);
+        JTextArea text = new JTextArea(report(), 30, 100);
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton refresh = new JButton("Refresh");
+        refresh.addActionListener(e -> {
+            text.setText(report());
+            text.setCaretPosition(0);
+        });
+        JButton save = new JButton("Save to " + file);
+        save.addActionListener(e -> io.execute(() -> {
+            try {
+                Path written = dumpTo(null);
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(dialog,
+                        "Report saved to " + written.toAbsolutePath(), "EDT Watchdog", JOptionPane.INFORMATION_MESSAGE));
+            } catch (IOException ex) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(dialog,
+                        "Could not save the report: " + ex.getMessage(), "EDT Watchdog", JOptionPane.ERROR_MESSAGE));
+            }
+        }));
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(refresh);
+        buttons.add(save);
+        dialog.add(new JScrollPane(text), BorderLayout.CENTER);
+        dialog.add(buttons, BorderLayout.SOUTH);
+        dialog.pack();
+        dialog.setLocationRelativeTo(owner);
+        text.setCaretPosition(0);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Log-scale latency histogram. Bucket bounds are fixed so reports from different runs line up.
+     * Thread-safe: actions record on the EDT while reports may be built elsewhere.
+     */
+    private static final class Histogram {
+        private static final double[] BOUNDS_MS = {1, 2, 4, 8, 16, 33, 50, 100, 200, 500, 1000, 2000, 5000};
+
+        private final long[] counts = new long[BOUNDS_MS.length + 1]; // Last bucket is "over 5 s"
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void record(long nanos) {
+            double ms = nanos / 1e6;
+            int b = 0;
+            while (b < BOUNDS_MS.length && ms > BOUNDS_MS[b]) b++;
+            counts[b]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized void appendSummary(StringBuilder sb, String label) {
+            if (count == 0) {
+                sb.append(String.format("%-22s %7d%n", label, 0));
+                return;
+            }
+            sb.append(String.format("%-22s %7d %9.1f %9s %9s %9s %9.1f%n", label, count, totalNanos / 1e6 / count,
+                    quantile(0.50), quantile(0.90), quantile(0.99), maxNanos / 1e6));
+        }
+
+        synchronized void appendBuckets(StringBuilder sb, String label) {
+            if (count == 0) return;
+            sb.append(String.format("%-22s", label));
+            for (int b = 0; b < counts.length; b++) {
+                if (counts[b] == 0) continue;
+                sb.append("  ").append(b < BOUNDS_MS.length ? bound(b) : ">" + bound(b - 1)).append(':').append(counts[b]);
+            }
+            sb.append('\n');
+        }
+
+        /** The upper bound of the bucket holding the given quantile. */
+        private String quantile(double q) {
+            long rank = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int b = 0; b < counts.length; b++) {
+                seen += counts[b];
+                if (seen >= rank) return b < BOUNDS_MS.length ? bound(b) : ">" + bound(b - 1);
+            }
+            return "-";
+        }
+
+        private static String bound(int b) {
+            return String.valueOf((long) BOUNDS_MS[b]);
+        }
+    }
+}
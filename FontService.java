@@ -0,0 +1,139 @@
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the UI fonts once per process. At startup every installed font family is probed
+ * (in parallel) for the scripts FarmerHub shows: Latin, Telugu, Tamil, Devanagari and emoji.
+ * From that coverage table one text family and one emoji family are chosen, and callers get
+ * derived {@link Font} instances from a cache keyed by role, style and size, so building or
+ * refreshing a panel never creates a font or calls {@code canDisplayUpTo} again.
+ */
+public class FontService {
+
+    /** A writing system the UI needs, with the sample text used to probe for it. */
+    public enum Script {
+        LATIN("FarmerHub"),
+        TELUGU("తెలుగు"),
+        TAMIL("தமிழ்"),
+        DEVANAGARI("हिन्दी"),
+        EMOJI("☰");
+
+        final String probe;
+
+        Script(String probe) {
+            this.probe = probe;
+        }
+    }
+
+    // Families tried first, in order (the same preferences the app always had)
+    private static final List<String> PREFERRED_TEXT = Arrays.asList("Nirmala UI", "Noto Sans", "Lohit Devanagari", "Arial Unicode MS");
+    private static final List<String> PREFERRED_EMOJI = Arrays.asList("Segoe UI Emoji", "Noto Color Emoji", "Apple Color Emoji", "EmojiOne Color");
+    private static final String FALLBACK = Font.SANS_SERIF; // Logical font; the JDK composes fallbacks itself
+
+    private static final int ROLE_TEXT = 0;
+    private static final int ROLE_EMOJI = 1;
+
+    private final Map<Script, List<String>> coverage;
+    private final Font textBase;
+    private final Font emojiBase;
+    private final ConcurrentHashMap<Integer, Font> cache = new ConcurrentHashMap<>();
+
+    private FontService(Map<Script, List<String>> coverage) {
+        this.coverage = coverage;
+        this.textBase = new Font(chooseText(), Font.PLAIN, 12);
+        String emoji = choose(PREFERRED_EMOJI, Script.EMOJI);
+        this.emojiBase = emoji != null ? new Font(emoji, Font.PLAIN, 12) : textBase;
+    }
+
+    /** Starts probing the installed fonts on background threads. */
+    public static CompletableFuture<FontService> probeAsync() {
+        return CompletableFuture.supplyAsync(FontService::probe);
+    }
+
+    /** Probes every installed family for every script (in parallel) and builds the service. */
+    public static FontService probe() {
+        String[] families = GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+        Map<Script, List<String>> coverage = new EnumMap<>(Script.class);
+        for (Script script : Script.values()) {
+            coverage.put(script, Collections.synchronizedList(new ArrayList<>()));
+        }
+        Arrays.stream(families).parallel().forEach(family -> {
+            Font font = new Font(family, Font.PLAIN, 12);
+            for (Script script : Script.values()) {
+                if (font.canDisplayUpTo(script.probe) == -1) {
+                    coverage.get(script).add(family);
+                }
+            }
+        });
+        return new FontService(coverage);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Lookup ***
+    // ------------------------------------------------------------------
+
+    /** A font for UI text in any of the app's languages. */
+    public Font text(int style, int size) {
+        return derive(ROLE_TEXT, textBase, style, size);
+    }
+
+    /** A font for labels that mix emoji with text; the text font if no emoji family is installed. */
+    public Font emoji(int style, int size) {
+        return derive(ROLE_EMOJI, emojiBase, style, size);
+    }
+
+    /** Installed families that can display the given script (unordered). */
+    public List<String> familiesFor(Script script) {
+        return Collections.unmodifiableList(coverage.get(script));
+    }
+
+    private Font derive(int role, Font base, int style, int size) {
+        int key = (role << 24) | (style << 16) | size;
+        Font font = cache.get(key);
+        if (font == null) {
+            font = cache.computeIfAbsent(key, k -> base.deriveFont(style, (float) size));
+        }
+        return font;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Choosing families ***
+    // ------------------------------------------------------------------
+
+    /** The first preferred family covering all Indic scripts, else any installed one, else the logical font. */
+    private String chooseText() {
+        List<String> indic = new ArrayList<>(coverage.get(Script.TELUGU));
+        indic.retainAll(coverage.get(Script.TAMIL));
+        indic.retainAll(coverage.get(Script.DEVANAGARI));
+        indic.retainAll(coverage.get(Script.LATIN));
+        for (String family : PREFERRED_TEXT) {
+            if (indic.contains(family)) return family;
+        }
+        if (!indic.isEmpty()) {
+            Collections.sort(indic); // Deterministic choice regardless of probe order
+            return indic.get(0);
+        }
+        return FALLBACK;
+    }
+
+    private String choose(List<String> preferred, Script script) {
+        List<String> covering = coverage.get(script);
+        for (String family : preferred) {
+            if (covering.contains(family)) return family;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "FontService[text=" + textBase.getFamily() + ", emoji=" + emojiBase.getFamily() + "]";
+    }
+}
@@ -0,0 +1,500 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streaming bulk import of listings from CSV or JSON, for cooperatives that hand over whole
+ * harvest spreadsheets.
+ *
+ * The file is split into records on the calling thread, in chunks of {@value #BATCH_SIZE}. Each
+ * chunk's prices are parsed and its rows validated on the common fork/join pool, so that work
+ * runs on every core, and valid rows are inserted with one {@link MarketplaceEngine#listProducts} call per chunk, in file
+ * order. At most two chunks per core are in flight, so memory stays constant however long the
+ * file is. Invalid rows are skipped and reported with their line (CSV) or object (JSON) number.
+ *
+ * CSV needs a header row; JSON is either an array of objects or one object per line. Fields
+ * are matched by name, case-insensitively: name, description, category, price (rupees, at
+ * most two decimals) and seller (optional; defaults to the importing user).
+ */
+public class ListingImporter {
+
+    public static final int BATCH_SIZE = 4096;
+    /** Errors kept in {@link Result#errors}; the error report file gets all of them. */
+    public static final int MAX_ERRORS_KEPT = 100;
+
+    private static final int MAX_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
+    // Record field positions
+    private static final int NAME = 0, DESCRIPTION = 1, CATEGORY = 2, PRICE = 3, SELLER = 4, FIELDS = 5;
+    private static final Map<String, Integer> FIELD_NAMES = new HashMap<>();
+    static {
+        FIELD_NAMES.put("name", NAME);
+        FIELD_NAMES.put("product", NAME);
+        FIELD_NAMES.put("description", DESCRIPTION);
+        FIELD_NAMES.put("category", CATEGORY);
+        FIELD_NAMES.put("price", PRICE);
+        FIELD_NAMES.put("seller", SELLER);
+        FIELD_NAMES.put("listedby", SELLER);
+    }
+
+    public enum Format {
+        CSV, JSON;
+
+        /** By file extension: .json and .jsonl are JSON, anything else is CSV. */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".json") || name.endsWith(".jsonl") ? JSON : CSV;
+        }
+    }
+
+    /** Receives progress after each batch is inserted, on the importing thread. */
+    public interface Listener {
+        void batchImported(long imported, long failed);
+    }
+
+    /** A rejected row: its line (CSV) or object number (JSON), and why. */
+    public static final class RowError {
+        public final long row;
+        public final String message;
+
+        RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + row + ": " + message;
+        }
+    }
+
+    public static final class Result {
+        public final long imported;
+        public final long failed;
+        public final List<RowError> errors; // The first MAX_ERRORS_KEPT
+        public final long elapsedMillis;
+
+        Result(long imported, long failed, List<RowError> errors, long elapsedMillis) {
+            this.imported = imported;
+            this.failed = failed;
+            this.errors = errors;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    /** A record as read from the file: raw field texts in NAME..SELLER order (null if absent). */
+    private static final class Record {
+        final long row;
+        final String[] fields;
+
+        Record(long row, String[] fields) {
+            this.row = row;
+            this.fields = fields;
+        }
+    }
+
+    /** A validated chunk: products to insert and rejected rows, both in file order. */
+    private static final class Chunk {
+        final List<FarmerHubApp.Product> products = new ArrayList<>();
+        final List<RowError> errors = new ArrayList<>();
+    }
+
+    /** Reads one record at a time; null at end of input. */
+    private interface RecordSource {
+        Record next() throws IOException;
+    }
+
+    private final MarketplaceEngine engine;
+    private final String defaultSeller;
+
+    // --- Progress (importing thread only) ---
+    private long imported;
+    private long failed;
+    private final List<RowError> keptErrors = new ArrayList<>();
+    private Writer errorReport;
+    private Path errorReportPath;
+
+    /** One importer per import; {@code defaultSeller} is used for rows without a seller. */
+    public ListingImporter(MarketplaceEngine engine, String defaultSeller) {
+        this.engine = engine;
+        this.defaultSeller = defaultSeller;
+    }
+
+    /**
+     * Imports a file, writing every rejected row to {@code errorReportPath} (created only if a
+     * row fails; may be null). Blocks until done; call it off the EDT.
+     *
+     * @throws IOException if the file cannot be read or is not well-formed CSV/JSON; rows before
+     *         the problem have been imported
+     * @throws UncheckedIOException if the catalog files cannot be written
+     */
+    public Result importFile(Path file, Path errorReportPath, Listener listener) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, Format.of(file), errorReportPath, listener);
+        }
+    }
+
+    public Result importFrom(Reader reader, Format format, Path errorReportPath, Listener listener) throws IOException {
+        long start = System.nanoTime();
+        this.errorReportPath = errorReportPath;
+        if (errorReportPath != null) Files.deleteIfExists(errorReportPath); // A stale report would look like this run's
+        RecordSource source = format == Format.JSON ? new JsonSource(reader) : new CsvSource(reader);
+        ArrayDeque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        IOException readError = null;
+        try {
+            List<Record> records = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                Record record;
+                try {
+                    record = source.next();
+                } catch (IOException e) {
+                    readError = e; // Rows read before the problem are still imported
+                    break;
+                }
+                if (record == null) break;
+                records.add(record);
+                if (records.size() == BATCH_SIZE) {
+                    // Error report write failures propagate from here; they are not read errors
+                    submit(records, inFlight, listener);
+                    records = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!records.isEmpty()) submit(records, inFlight, listener);
+            while (!inFlight.isEmpty()) {
+                commit(inFlight.poll(), listener);
+            }
+        } finally {
+            if (errorReport != null) errorReport.close();
+        }
+        if (readError != null) throw readError;
+        return new Result(imported, failed, new ArrayList<>(keptErrors), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Starts validating a chunk; once too many are in flight, waits for the oldest and inserts it. */
+    private void submit(List<Record> records, ArrayDeque<CompletableFuture<Chunk>> inFlight, Listener listener) throws IOException {
+        inFlight.add(CompletableFuture.supplyAsync(() -> validate(records)));
+        if (inFlight.size() >= MAX_IN_FLIGHT) {
+            commit(inFlight.poll(), listener);
+        }
+    }
+
+    /** Inserts a validated chunk (in file order) and reports progress. */
+    private void commit(CompletableFuture<Chunk> pending, Listener listener) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = pending.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        if (!chunk.products.isEmpty()) {
+            engine.listProducts(chunk.products);
+            imported += chunk.products.size();
+        }
+        for (RowError error : chunk.errors) {
+            reportError(error);
+        }
+        if (listener != null) listener.batchImported(imported, failed);
+    }
+
+    private void reportError(RowError error) throws IOException {
+        failed++;
+        if (keptErrors.size() < MAX_ERRORS_KEPT) keptErrors.add(error);
+        if (errorReportPath == null) return;
+        if (errorReport == null) {
+            errorReport = new BufferedWriter(Files.newBufferedWriter(errorReportPath, StandardCharsets.UTF_8));
+            errorReport.write("row,error\n");
+        }
+        errorReport.write(error.row + ",\"" + error.message.replace("\"", "\"\"") + "\"\n");
+    }
+
+    // ------------------------------------------------------------------
+    // *** Validation (runs on pool threads) ***
+    // ------------------------------------------------------------------
+
+    private Chunk validate(List<Record> records) {
+        Chunk chunk = new Chunk();
+        for (Record record : records) {
+            String problem = null;
+            FarmerHubApp.Product product = null;
+            String[] f = record.fields;
+            String name = trim(f[NAME]);
+            String description = trim(f[DESCRIPTION]);
+            String category = canonicalCategory(trim(f[CATEGORY]));
+            String seller = trim(f[SELLER]);
+            if (name.isEmpty()) {
+                problem = "name is missing";
+            } else if (description.isEmpty()) {
+                problem = "description is missing";
+            } else if (category == null) {
+                problem = "category must be one of " + String.join(", ", MarketplaceEngine.CATEGORIES) + " (was '" + trim(f[CATEGORY]) + "')";
+            } else {
+                try {
+                    long price = Money.parse(trim(f[PRICE])); // Exact paise, like the listing form
+                    if (price <= 0) {
+                        problem = "price must be positive";
+                    } else {
+                        product = new FarmerHubApp.Product(name, description, category, price,
+                                seller.isEmpty() ? defaultSeller : seller);
+                    }
+                } catch (NumberFormatException e) {
+                    problem = "price '" + trim(f[PRICE]) + "' is not an amount in rupees with at most two decimals";
+                }
+            }
+            if (product != null) {
+                chunk.products.add(product);
+            } else {
+                chunk.errors.add(new RowError(record.row, problem));
+            }
+        }
+        return chunk;
+    }
+
+    private static String trim(String s) {
+        return s == null ? "" : s.trim();
+    }
+
+    private static String canonicalCategory(String category) {
+        for (String known : MarketplaceEngine.CATEGORIES) {
+            if (known.equalsIgnoreCase(category)) return known;
+        }
+        return null;
+    }
+
+    /** Maps a header or key to its field position, or -1 for columns the importer ignores. */
+    private static int fieldIndex(String name) {
+        Integer index = FIELD_NAMES.get(name.trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", ""));
+        return index == null ? -1 : index;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Input ***
+    // ------------------------------------------------------------------
+
+    /** Buffered character input for the JSON reader, with one character of lookahead and line counting. */
+    private static class CharInput {
+        private final Reader reader;
+        private final char[] buffer = new char[1 << 16];
+        private int pos;
+        private int limit;
+        long line = 1;
+
+        CharInput(Reader reader) {
+            this.reader = reader;
+        }
+
+        int peek() throws IOException {
+            if (pos == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos];
+        }
+
+        int read() throws IOException {
+            int c = peek();
+            if (c >= 0) {
+                pos++;
+                if (c == '\n') line++;
+            }
+            return c;
+        }
+
+        void skipByteOrderMark() throws IOException {
+            if (peek() == '\uFEFF') pos++;
+        }
+    }
+
+    /** CSV with a header row naming the columns. */
+    private static final class CsvSource implements RecordSource {
+        private final CsvReader csv;
+        private int[] columns; // Field position per CSV column, -1 for ignored ones
+
+        CsvSource(Reader reader) {
+            csv = new CsvReader(reader);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            if (columns == null) {
+                List<String> header = csv.next();
+                if (header == null) throw new IOException("The CSV file is empty; a header row is needed");
+                columns = new int[header.size()];
+                boolean hasName = false;
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = fieldIndex(header.get(i));
+                    hasName |= columns[i] == NAME;
+                }
+                if (!hasName) throw new IOException("The CSV header has no 'name' column: " + header);
+            }
+            List<String> values = csv.next();
+            if (values == null) return null;
+            String[] fields = new String[FIELDS];
+            for (int i = 0; i < values.size() && i < columns.length; i++) {
+                if (columns[i] >= 0) fields[columns[i]] = values.get(i);
+            }
+            return new Record(csv.recordLine(), fields);
+        }
+    }
+
+    /**
+     * JSON listings: a top-level array of objects, or objects one after another (JSON Lines).
+     * Strings, numbers, booleans and null are read; nested values are skipped.
+     */
+    private static final class JsonSource implements RecordSource {
+        private final CharInput in;
+        private final StringBuilder text = new StringBuilder();
+        private boolean started;
+        private boolean inArray;
+        private long objects;
+
+        JsonSource(Reader reader) {
+            in = new CharInput(reader);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            if (!started) {
+                in.skipByteOrderMark();
+                started = true;
+                if (skipWhitespace() == '[') {
+                    in.read();
+                    inArray = true;
+                }
+            }
+            int c = skipWhitespace();
+            if (inArray && c == ',') {
+                in.read();
+                c = skipWhitespace();
+            }
+            if (c < 0) {
+                if (inArray) throw error("Unexpected end of input; the top-level array is not closed");
+                return null;
+            }
+            if (inArray && c == ']') {
+                in.read();
+                if (skipWhitespace() >= 0) throw error("Unexpected content after the top-level array");
+                return null;
+            }
+            if (c != '{') throw error("Expected a listing object");
+            String[] fields = readObject();
+            return new Record(++objects, fields);
+        }
+
+        private String[] readObject() throws IOException {
+            String[] fields = new String[FIELDS];
+            in.read(); // {
+            if (skipWhitespace() == '}') {
+                in.read();
+                return fields;
+            }
+            while (true) {
+                if (skipWhitespace() != '"') throw error("Expected a field name");
+                int index = fieldIndex(readString());
+                if (skipWhitespace() != ':') throw error("Expected ':'");
+                in.read();
+                String value = readValue();
+                if (index >= 0) fields[index] = value;
+                int c = skipWhitespace();
+                in.read();
+                if (c == '}') return fields;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+        }
+
+        /** A scalar as text (numbers keep their exact digits; null gives null); nested values are skipped. */
+        private String readValue() throws IOException {
+            int c = skipWhitespace();
+            if (c == '"') return readString();
+            if (c == '{' || c == '[') {
+                skipNested();
+                return null;
+            }
+            text.setLength(0);
+            while ((c = in.peek()) >= 0 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                text.append((char) in.read());
+            }
+            String literal = text.toString();
+            if (literal.equals("null")) return null;
+            boolean number = !literal.isEmpty() && (literal.charAt(0) == '-' || Character.isDigit(literal.charAt(0)));
+            if (!number && !literal.equals("true") && !literal.equals("false")) throw error("Expected a value");
+            return literal;
+        }
+
+        private String readString() throws IOException {
+            in.read(); // Opening quote
+            text.setLength(0);
+            while (true) {
+                int c = in.read();
+                if (c < 0) throw error("Unterminated string");
+                if (c == '"') return text.toString();
+                if (c != '\\') {
+                    text.append((char) c);
+                    continue;
+                }
+                c = in.read();
+                switch (c) {
+                    case '"': case '\\': case '/': text.append((char) c); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'n': text.append('\n'); break;
+                    case 'r': text.append('\r'); break;
+                    case 't': text.append('\t'); break;
+                    case 'u':
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) hex[i] = (char) in.read();
+                        try {
+                            text.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad \\u escape: " + Arrays.toString(hex));
+                        }
+                        break;
+                    default:
+                        throw error("Bad escape in string");
+                }
+            }
+        }
+
+        private void skipNested() throws IOException {
+            int depth = 0;
+            do {
+                int c = in.peek();
+                if (c < 0) throw error("Unexpected end of input");
+                if (c == '"') {
+                    readString();
+                    continue;
+                }
+                in.read();
+                if (c == '{' || c == '[') depth++;
+                if (c == '}' || c == ']') depth--;
+            } while (depth > 0);
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c;
+            while ((c = in.peek()) >= 0 && Character.isWhitespace(c)) in.read();
+            return c;
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " (line " + in.line + ", listing " + (objects + 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Search as you type for a text field. Each keystroke cancels the query that is still running
+ * (it stops mid-scan and its result is dropped) and restarts a Swing timer, so the EDT never
+ * waits for a query and no keystroke is lost. When the user pauses for the debounce delay, the
+ * query for the current text runs on a background worker. A newer query or {@link #cancel}
+ * cancels an older one in the same way. The result that survives is handed to {@code apply}
+ * on the EDT, once.
+ *
+ * @param <T> the result type
+ */
+public final class LiveSearch<T> {
+
+    /** Runs a query off the EDT; it should stop (e.g. throw CancellationException) once {@code cancelled} is true. */
+    public interface Query<T> {
+        T run(String text, BooleanSupplier cancelled);
+    }
+
+    private final JTextComponent field;
+    private final Query<T> query;
+    private final BiConsumer<String, T> apply;
+    private final Timer debounce;
+    private final AtomicLong generation = new AtomicLong(); // Bumped by every keystroke, new query and cancel
+
+    // One worker: a new query starts as soon as the one it replaced has noticed the cancel
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "FarmerHub-Search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param apply receives the query text and its result on the EDT
+     */
+    public LiveSearch(JTextComponent field, int debounceMillis, Query<T> query, BiConsumer<String, T> apply) {
+        this.field = field;
+        this.query = query;
+        this.apply = apply;
+        this.debounce = new Timer(debounceMillis, e -> runNow());
+        debounce.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                generation.incrementAndGet(); // The running query is for older text
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                generation.incrementAndGet();
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes only
+            }
+        });
+    }
+
+    /** Runs the query for the current text without waiting for the debounce (Enter, a Search button). */
+    public void runNow() {
+        debounce.stop();
+        String text = field.getText().trim();
+        long mine = generation.incrementAndGet();
+        BooleanSupplier cancelled = () -> generation.get() != mine;
+        worker.execute(() -> {
+            if (cancelled.getAsBoolean()) return; // Replaced while queued
+            T result;
+            try {
+                result = query.run(text, cancelled);
+            } catch (CancellationException e) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled.getAsBoolean()) apply.accept(text, result);
+            });
+        });
+    }
+
+    /** Drops any pending or running query, e.g. when the user switches to a category instead. */
+    public void cancel() {
+        debounce.stop();
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Translation table plus a registry of the components that show translated text.
+ *
+ * Texts live in one dense {@code String[language][TextKey.ordinal()]} table. Every localized
+ * component is bound once, when it is built, to the key (or small refresh routine) that
+ * produces its text; bindings are grouped by the card they belong to, with always-visible
+ * chrome in {@link #GLOBAL}. Switching language re-applies only the global bindings and the
+ * card on screen. Every other card is marked stale and localized the next time it is shown,
+ * so a language switch costs the same however many screens the app has. EDT only.
+ */
+public class Localizer {
+
+    /** Scope for bindings that are always on screen (title bar, menu). */
+    public static final String GLOBAL = "";
+    public static final int LANGUAGES = 4;
+
+    private final String[][] table = new String[LANGUAGES][TextKey.values().length];
+    private final HashMap<String, Scope> scopes = new HashMap<>();
+    private final Scope global;
+    private Scope building;
+    private Scope visible;
+    private int language = 0;
+
+    /** The bindings of one card, and the language they were last applied in. */
+    private static final class Scope {
+        final String card;
+        final ArrayList<Runnable> bindings = new ArrayList<>();
+        int language;
+
+        Scope(String card, int language) {
+            this.card = card;
+            this.language = language;
+        }
+    }
+
+    public Localizer() {
+        global = scope(GLOBAL);
+        building = global;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Table ***
+    // ------------------------------------------------------------------
+
+    /** Sets the texts for a key, one per language in selector order. */
+    public void put(TextKey key, String[] texts) {
+        for (int lang = 0; lang < LANGUAGES; lang++) {
+            table[lang][key.ordinal()] = texts[lang];
+        }
+    }
+
+    /** The text for a key in the current language. */
+    public String text(TextKey key) {
+        return table[language][key.ordinal()];
+    }
+
+    public int language() {
+        return language;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Bindings ***
+    // ------------------------------------------------------------------
+
+    /** Bindings made from now on belong to the named card (or {@link #GLOBAL}); returns the previous one. */
+    public String setBuildingScope(String card) {
+        String previous = building.card;
+        building = scope(card);
+        return previous;
+    }
+
+    /** Binds a text setter (e.g. {@code label::setText}) to a key and applies it now. */
+    public void bind(Consumer<String> setter, TextKey key) {
+        bind(() -> setter.accept(text(key)));
+    }
+
+    /** Like {@link #bind(Consumer, TextKey)}, with a fixed prefix such as an icon. */
+    public void bind(Consumer<String> setter, String prefix, TextKey key) {
+        bind(() -> setter.accept(prefix + text(key)));
+    }
+
+    /** Registers a routine that re-renders translated text (for texts built from several keys) and runs it now. */
+    public void bind(Runnable binding) {
+        building.bindings.add(binding);
+        binding.run();
+    }
+
+    // ------------------------------------------------------------------
+    // *** Switching ***
+    // ------------------------------------------------------------------
+
+    /** Switches language, updating the global bindings and the card on screen; other cards go stale. */
+    public void setLanguage(int lang) {
+        language = lang;
+        apply(global);
+        if (visible != null) apply(visible);
+    }
+
+    /** Call before a card is shown; localizes it if the language changed since it was last applied. */
+    public void show(String card) {
+        visible = scope(card);
+        apply(visible);
+    }
+
+    private void apply(Scope scope) {
+        if (scope.language == language) return;
+        for (Runnable binding : scope.bindings) {
+            binding.run();
+        }
+        scope.language = language;
+    }
+
+    private Scope scope(String card) {
+        return scopes.computeIfAbsent(card, k -> new Scope(k, language));
+    }
+}
@@ -0,0 +1,413 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional HTTP server mode: many kiosks share one engine (one catalog, one set of accounts)
+ * instead of each running its own window and its own copy of the data.
+ *
+ *   java FarmerHubApp --server [port]
+ *
+ * Responses are JSON. Parameters come from the query string or a form-encoded body, and every
+ * call except login and products carries the session token as "Authorization: Bearer token".
+ *
+ *   POST /api/login        login, password                  {"token", "username"}
+ *   POST /api/logout                                        {}
+ *   GET  /api/products     category or q, offset, limit     {"total", "products": [...]}
+ *                          [sort=price|-price, minPrice, maxPrice]
+ *   GET  /api/cart                                          {"items": [...], "itemCount", "subtotalPaise", "subtotal"}
+ *   POST /api/cart/items   productId                        {"quantity", "itemCount", "subtotalPaise"}
+ *   POST /api/checkout                                      {"totalPaise", "total"}
+ *
+ * The products "total" counts every match (for a search too), not just the returned page,
+ * so clients can page through it with offset.
+ *
+ * Each request runs on its own virtual thread when the JVM has them, and on a fixed pool of
+ * platform threads otherwise (or with -Dfarmerhub.server.virtualThreads=false). The engine is
+ * safe to call from any thread, so handlers take no locks of their own. Sessions live in a
+ * SessionStore (idle timeout and cap set by its system properties). ServerBenchmark
+ * measures throughput and latency against localhost.
+ *
+ * With a sort or a price range (in rupees), products come from the engine's price index, cheapest
+ * first for "price" and for a range alone, most expensive first for "-price". Such a page costs
+ * O(log n + offset + limit), so deep offsets are as slow as they are in a search. Search results
+ * are ranked by relevance, so q cannot be combined with sort, minPrice or maxPrice (400).
+ */
+public final class MarketServer {
+
+    public static final int DEFAULT_PORT = 8085;
+
+    private static final int DEFAULT_PAGE = 50;
+    private static final int MAX_PAGE = 500;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int BACKLOG = 4096; // Thousands of kiosks may connect at once
+
+    private final MarketplaceEngine engine;
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final String executorName;
+
+    // --- Sessions: token -> logged-in user and their cart, with idle expiry and a cap ---
+    private final SessionStore sessions;
+
+    /** An error reported to the client as {"error": message} with the given HTTP status. */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private interface Endpoint {
+        /** Returns the JSON response body. */
+        String handle(Map<String, String> params, SessionStore.Session session);
+    }
+
+    private MarketServer(MarketplaceEngine engine, InetSocketAddress address) throws IOException {
+        this.engine = engine;
+        this.sessions = SessionStore.fromSystemProperties(engine, null);
+        // The JDK server writes headers and body separately; with Nagle on, a keep-alive client
+        // waits for a delayed ACK (~40 ms) on every response. Read once, when the first server starts.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.http = HttpServer.create(address, BACKLOG);
+        ExecutorService virtual = Boolean.parseBoolean(System.getProperty("farmerhub.server.virtualThreads", "true"))
+                ? virtualThreadExecutor() : null;
+        if (virtual != null) {
+            executor = virtual;
+            executorName = "virtual thread per request";
+        } else {
+            int threads = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "FarmerHub-Http-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executorName = threads + " platform threads";
+        }
+        http.setExecutor(executor);
+
+        route("/api/login", "POST", false, (params, session) -> login(params));
+        route("/api/logout", "POST", true, (params, session) -> logout(session));
+        route("/api/products", "GET", false, (params, session) -> products(params));
+        route("/api/cart", "GET", true, (params, session) -> cart(session));
+        route("/api/cart/items", "POST", true, this::addToCart);
+        route("/api/checkout", "POST", true, (params, session) -> checkout(session));
+    }
+
+    /** Starts serving on the given address (port 0 picks a free port). */
+    public static MarketServer start(MarketplaceEngine engine, InetSocketAddress address) throws IOException {
+        MarketServer server = new MarketServer(engine, address);
+        server.http.start();
+        return server;
+    }
+
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    /** How requests are run, e.g. "virtual thread per request". */
+    public String executorName() {
+        return executorName;
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    /** Stops accepting connections, gives running requests up to a second, then stops the threads. */
+    public void stop() {
+        http.stop(1);
+        sessions.shutdown();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() when this JVM has it (Java 21, or 19-20 with
+     * --enable-preview). Looked up reflectively so the code still compiles and runs on Java 17.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // No such method, or preview features are disabled
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Endpoints ***
+    // ------------------------------------------------------------------
+
+    private String login(Map<String, String> params) {
+        String login = required(params, "login");
+        String password = required(params, "password");
+        FarmerHubApp.UserData user = engine.findUserByLogin(login);
+        if (user == null || !MessageDigest.isEqual(user.password.getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8))) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        String token = sessions.open(user).token;
+
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"token\":");
+        quote(json, token);
+        json.append(",\"username\":");
+        quote(json, user.username);
+        return json.append('}').toString();
+    }
+
+    private String logout(SessionStore.Session session) {
+        sessions.close(session.token);
+        return "{}";
+    }
+
+    private String products(Map<String, String> params) {
+        int offset = intParam(params, "offset", 0, 0, Integer.MAX_VALUE);
+        int limit = intParam(params, "limit", DEFAULT_PAGE, 1, MAX_PAGE);
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        String query = params.get("q");
+        String category = params.getOrDefault("category", MarketplaceEngine.ALL_CATEGORIES);
+        String sort = params.get("sort");
+        long minPrice = priceParam(params, "minPrice", Long.MIN_VALUE);
+        long maxPrice = priceParam(params, "maxPrice", Long.MAX_VALUE);
+        if (sort != null && !sort.equals("price") && !sort.equals("-price")) {
+            throw new ApiException(400, "sort must be price or -price");
+        }
+        boolean byPrice = sort != null || minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE;
+        List<FarmerHubApp.Product> matches;
+        int total;
+        if (query != null && !query.trim().isEmpty()) {
+            if (byPrice) throw new ApiException(400, "q cannot be combined with sort, minPrice or maxPrice");
+            MarketplaceEngine.SearchResults results = engine.searchWithTotal(query, wanted);
+            matches = results.products;
+            total = results.total; // Every match, not just the ones up to this page
+        } else if (byPrice) {
+            matches = engine.byPrice(category, minPrice, maxPrice, "-price".equals(sort), wanted);
+            total = engine.countByPrice(category, minPrice, maxPrice);
+        } else {
+            matches = engine.browse(category);
+            total = matches.size();
+        }
+
+        int end = (int) Math.min((long) offset + limit, matches.size());
+        StringBuilder json = new StringBuilder(128 + 160 * Math.max(0, end - offset));
+        json.append("{\"total\":").append(total).append(",\"products\":[");
+        for (int i = offset; i < end; i++) {
+            if (i > offset) json.append(',');
+            product(json, matches.get(i));
+        }
+        return json.append("]}").toString();
+    }
+
+    private String cart(SessionStore.Session session) {
+        List<FarmerHubApp.CartItem> items = session.cart.items();
+        StringBuilder json = new StringBuilder(64 + 200 * items.size());
+        json.append("{\"items\":[");
+        long subtotal = 0;
+        int count = 0;
+        for (int i = 0; i < items.size(); i++) {
+            FarmerHubApp.CartItem item = items.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"product\":");
+            product(json, item.product);
+            json.append(",\"quantity\":").append(item.quantity)
+                    .append(",\"totalPaise\":").append(item.getTotalPrice()).append('}');
+            subtotal += item.getTotalPrice();
+            count += item.quantity;
+        }
+        // Totals from the same copy as the lines, so they agree even if another request changes the cart
+        json.append("],\"itemCount\":").append(count).append(",\"subtotalPaise\":").append(subtotal).append(",\"subtotal\":");
+        quote(json, Money.format(subtotal));
+        return json.append('}').toString();
+    }
+
+    private String addToCart(Map<String, String> params, SessionStore.Session session) {
+        int id = intParam(params, "productId", -1, 0, Integer.MAX_VALUE);
+        FarmerHubApp.Product product = id < 0 ? null : engine.productById(id);
+        if (product == null) throw new ApiException(404, "No product with id " + params.get("productId"));
+        MarketplaceEngine.Cart cart = session.cart;
+        synchronized (cart) { // Quantity and totals from the same moment
+            int quantity = cart.add(product);
+            return "{\"quantity\":" + quantity + ",\"itemCount\":" + cart.itemCount() + ",\"subtotalPaise\":" + cart.subtotal() + "}";
+        }
+    }
+
+    private String checkout(SessionStore.Session session) {
+        if (session.cart.isEmpty()) throw new ApiException(409, "The cart is empty");
+        long total = engine.checkout(session.cart);
+        StringBuilder json = new StringBuilder(48);
+        json.append("{\"totalPaise\":").append(total).append(",\"total\":");
+        quote(json, Money.format(total));
+        return json.append('}').toString();
+    }
+
+    // ------------------------------------------------------------------
+    // *** Request Handling ***
+    // ------------------------------------------------------------------
+
+    private void route(String path, String method, boolean needsSession, Endpoint endpoint) {
+        http.createContext(path, exchange -> {
+            int status = 200;
+            String body;
+            try {
+                // Contexts match by prefix; only the exact path is served here
+                if (!exchange.getRequestURI().getPath().equals(path)) throw new ApiException(404, "Not found");
+                if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    throw new ApiException(405, "Use " + method);
+                }
+                Map<String, String> params = parameters(exchange);
+                SessionStore.Session session = null;
+                if (needsSession) {
+                    session = sessions.get(bearerToken(exchange));
+                    if (session == null) throw new ApiException(401, "Log in first");
+                }
+                body = endpoint.handle(params, session);
+            } catch (ApiException e) {
+                status = e.status;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                body = error("Internal error");
+                System.err.println("Error serving " + exchange.getRequestURI() + ": " + e);
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(bytes);
+            out.close();
+        });
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return null;
+        return header.substring(7).trim();
+    }
+
+    /** Query string parameters, overridden by form body parameters. */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        InputStream in = exchange.getRequestBody();
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        in.close();
+        if (body.length > MAX_BODY_BYTES) throw new ApiException(413, "Request body is too large");
+        if (body.length > 0) parseForm(new String(body, StandardCharsets.UTF_8), params);
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) return;
+        try {
+            for (String pair : form.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                params.put(name, value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed parameters");
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) throw new ApiException(400, "Missing parameter: " + name);
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int fallback, int min, int max) {
+        String value = params.get(name);
+        if (value == null) return fallback;
+        try {
+            int n = Integer.parseInt(value.trim());
+            if (n < min || n > max) throw new ApiException(400, name + " must be between " + min + " and " + max);
+            return n;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " is not a number: " + value);
+        }
+    }
+
+    /** A rupee amount such as "40" or "12.50", in paise. */
+    private static long priceParam(Map<String, String> params, String name, long fallback) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) return fallback;
+        try {
+            return Money.parse(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " is not a rupee amount: " + value);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** JSON ***
+    // ------------------------------------------------------------------
+
+    private static void product(StringBuilder json, FarmerHubApp.Product p) {
+        json.append("{\"id\":").append(p.id).append(",\"name\":");
+        quote(json, p.name);
+        json.append(",\"description\":");
+        quote(json, p.description);
+        json.append(",\"category\":");
+        quote(json, p.category);
+        json.append(",\"pricePaise\":").append(p.pricePaise).append(",\"price\":");
+        quote(json, Money.format(p.pricePaise));
+        json.append(",\"listedBy\":");
+        quote(json, p.listedBy);
+        json.append('}');
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16);
+        json.append("{\"error\":");
+        quote(json, message);
+        return json.append('}').toString();
+    }
+
+    private static void quote(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
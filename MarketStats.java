@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live price statistics per category and for the whole market. Every listing updates its
+ * category and the market total in O(1): count, min, max and sum are kept exactly, median and
+ * 90th percentile come from a {@link QuantileSketch} within {@value #RELATIVE_ACCURACY} relative
+ * error. Nothing here ever scans the catalog, and memory per category is bounded by the
+ * sketch's bucket range (a few KB), however many products are listed. Thread-safe.
+ */
+public class MarketStats {
+
+    /** Relative error of the median and 90th percentile (0.5%). */
+    public static final double RELATIVE_ACCURACY = 0.005;
+
+    private final Accumulator market = new Accumulator(MarketplaceEngine.ALL_CATEGORIES);
+    private final ConcurrentHashMap<String, Accumulator> byCategory = new ConcurrentHashMap<>();
+
+    /** Immutable statistics for one category (or the whole market). Prices are in paise. */
+    public static final class Summary {
+        public final String category;
+        public final long count;
+        public final long min;
+        public final long max;
+        public final long mean;
+        public final long median;
+        public final long p90;
+
+        Summary(String category, long count, long min, long max, long mean, long median, long p90) {
+            this.category = category;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.median = median;
+            this.p90 = p90;
+        }
+    }
+
+    private static final class Accumulator {
+        final String category;
+        final QuantileSketch sketch = new QuantileSketch(RELATIVE_ACCURACY);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long sum;
+
+        Accumulator(String category) {
+            this.category = category;
+        }
+
+        synchronized void add(long price) {
+            sketch.add(price);
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            sum += price;
+        }
+
+        synchronized Summary summary() {
+            long n = sketch.count();
+            if (n == 0) return new Summary(category, 0, 0, 0, 0, 0, 0);
+            // Sketch values are clamped to the exact extremes, so a quantile never lies outside [min, max]
+            long median = Math.max(min, Math.min(max, sketch.quantile(0.5)));
+            long p90 = Math.max(min, Math.min(max, sketch.quantile(0.9)));
+            return new Summary(category, n, min, max, Math.round((double) sum / n), median, p90);
+        }
+    }
+
+    /** Records one listing. */
+    public void add(String category, long pricePaise) {
+        byCategory.computeIfAbsent(category, Accumulator::new).add(pricePaise);
+        market.add(pricePaise);
+    }
+
+    /** Statistics for one category, or for the whole market with {@link MarketplaceEngine#ALL_CATEGORIES}. */
+    public Summary summary(String category) {
+        if (MarketplaceEngine.ALL_CATEGORIES.equals(category)) return market.summary();
+        Accumulator acc = byCategory.get(category);
+        return acc != null ? acc.summary() : new Summary(category, 0, 0, 0, 0, 0, 0);
+    }
+
+    /** The whole market first, then every category that has listings, by name. */
+    public List<Summary> summaries() {
+        List<Summary> result = new ArrayList<>();
+        result.add(market.summary());
+        List<String> categories = new ArrayList<>(byCategory.keySet());
+        categories.sort(null);
+        for (String category : categories) {
+            result.add(byCategory.get(category).summary());
+        }
+        return result;
+    }
+}
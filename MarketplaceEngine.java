@@ -0,0 +1,593 @@
+import java.io.*;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Headless core of FarmerHub: the product catalog, registered users, carts and checkout.
+ * Nothing in here touches Swing, so the same engine can back the desktop window,
+ * a server or a load test. Every public method is safe to call from any thread.
+ */
+public class MarketplaceEngine {
+
+    public static final String ALL_CATEGORIES = "All";
+    /** The categories a listing can have, as offered by the listing form and accepted by the importer. */
+    public static final List<String> CATEGORIES = List.of("Fruits", "Vegetables", "Grains");
+
+    // --- Catalog (append-only, lock-free reads) ---
+    // Writers append under catalogLock and publish the array before the size,
+    // so a reader that sees size n also sees the first n slots. With a CatalogStore
+    // attached, slots start out null and are decoded from the mapped columns on first use.
+    private final Object catalogLock = new Object();
+    private volatile FarmerHubApp.Product[] products = new FarmerHubApp.Product[64];
+    private volatile int productCount = 0;
+    private volatile CatalogStore catalogStore;
+
+    // --- Search index; rows below indexedCount are indexed (guarded by catalogLock) ---
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private int indexedCount = 0;
+    private static final int INDEX_CHUNK = 4096;
+
+    // --- Secondary indexes: catalog positions per category and per seller (lower-cased) ---
+    private final ConcurrentHashMap<String, DocList> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DocList> bySeller = new ConcurrentHashMap<>();
+    // Catalog positions sorted by price, per category and overall (inserted in place per listing)
+    private final PriceIndex priceIndex = new PriceIndex();
+
+    // --- Price statistics per category, updated by every listing (see MarketStats) ---
+    private final MarketStats marketStats = new MarketStats();
+
+    // --- Users (keyed by lower-cased username), journaled once openUserJournal has run ---
+    private final ConcurrentHashMap<String, FarmerHubApp.UserData> users = new ConcurrentHashMap<>();
+    // Secondary index by lower-cased email; the first account registered with an address owns it
+    private final ConcurrentHashMap<String, FarmerHubApp.UserData> usersByEmail = new ConcurrentHashMap<>();
+    private volatile UserJournal userJournal;
+
+    // ------------------------------------------------------------------
+    // *** Catalog ***
+    // ------------------------------------------------------------------
+
+    /**
+     * Opens the persistent catalog in {@code dir} and makes its rows the start of this catalog.
+     * Only the fixed-width category, seller and price columns are scanned (to build the secondary
+     * indexes, the price index and the market statistics); products are decoded lazily and the search index is
+     * filled in the background.
+     * Must be called before any product is listed.
+     */
+    public void openCatalog(String dir) throws IOException {
+        CatalogStore store = CatalogStore.open(dir);
+        synchronized (catalogLock) {
+            if (productCount != 0 || catalogStore != null) {
+                store.close();
+                throw new IllegalStateException("Catalog must be opened before listing products");
+            }
+            int n = store.size();
+            FarmerHubApp.Product[] arr = new FarmerHubApp.Product[Math.max(64, n + n / 4)];
+
+            // Dictionary id -> posting list, so each row costs two int reads and no string work
+            DocList[] categoryLists = new DocList[16];
+            DocList[] sellerLists = new DocList[16];
+            String[] rowCategories = new String[n];
+            long[] rowPrices = new long[n];
+            for (int row = 0; row < n; row++) {
+                categoryLists = addToList(categoryLists, store.categoryId(row), row, store, byCategory, false);
+                sellerLists = addToList(sellerLists, store.sellerId(row), row, store, bySeller, true);
+                rowCategories[row] = store.category(row);
+                rowPrices[row] = store.price(row);
+                marketStats.add(rowCategories[row], rowPrices[row]);
+            }
+            priceIndex.load(rowCategories, rowPrices, n); // One sort instead of n inserts
+
+            catalogStore = store;
+            products = arr;
+            productCount = n;
+        }
+        if (store.size() > 0) {
+            Thread indexer = new Thread(this::indexBacklog, "FarmerHub-SearchIndexer");
+            indexer.setDaemon(true);
+            indexer.start();
+        }
+    }
+
+    private static DocList[] addToList(DocList[] listsById, int id, int row, CatalogStore store,
+                                       ConcurrentHashMap<String, DocList> index, boolean lowerCase) {
+        if (id >= listsById.length) listsById = Arrays.copyOf(listsById, Math.max(id + 1, listsById.length * 2));
+        DocList list = listsById[id];
+        if (list == null) {
+            String key = store.dictionaryEntry(id);
+            list = index.computeIfAbsent(lowerCase ? key.toLowerCase() : key, k -> new DocList());
+            listsById[id] = list;
+        }
+        list.add(row);
+        return listsById;
+    }
+
+    /** Indexes stored rows for search in small chunks, so listProduct is never blocked for long. */
+    private void indexBacklog() {
+        while (true) {
+            synchronized (catalogLock) {
+                int end = Math.min(productCount, indexedCount + INDEX_CHUNK);
+                CatalogStore store = catalogStore;
+                if (indexedCount >= end || store == null) return; // Done, or the catalog was closed
+                for (int row = indexedCount; row < end; row++) {
+                    searchIndex.add(row, store.name(row), store.description(row));
+                }
+                indexedCount = end;
+            }
+        }
+    }
+
+    /** Syncs listings to the catalog files. No-op without a catalog. */
+    public void flushCatalog() throws IOException {
+        CatalogStore store = catalogStore;
+        if (store != null) store.force();
+    }
+
+    /**
+     * Flushes and closes the catalog files. Products that were never decoded cannot be read
+     * afterwards: reading one throws IllegalStateException. Call this only at shutdown.
+     */
+    public void closeCatalog() throws IOException {
+        CatalogStore store;
+        synchronized (catalogLock) {
+            store = catalogStore;
+            catalogStore = null;
+        }
+        if (store != null) store.close();
+    }
+
+    /**
+     * Adds a product to the catalog (and to the catalog files, if open) and assigns its id,
+     * which is its catalog position.
+     *
+     * @throws UncheckedIOException if the catalog files cannot be written
+     */
+    public void listProduct(FarmerHubApp.Product product) {
+        synchronized (catalogLock) {
+            append(product, true);
+        }
+    }
+
+    /**
+     * Lists a batch of products under one lock acquisition, assigning ids in order. With catalog
+     * files open, the batch is written to them and the products are not kept on the heap (they
+     * are decoded from the mapped columns when read), so bulk imports do not grow memory.
+     *
+     * @throws UncheckedIOException if the catalog files cannot be written; the products before
+     *         the failing one are listed
+     */
+    public void listProducts(List<FarmerHubApp.Product> batch) {
+        synchronized (catalogLock) {
+            boolean keep = catalogStore == null;
+            for (FarmerHubApp.Product product : batch) {
+                append(product, keep);
+            }
+        }
+    }
+
+    private void append(FarmerHubApp.Product product, boolean keepDecoded) {
+        CatalogStore store = catalogStore;
+        if (store != null) {
+            try {
+                store.append(product);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not save listing " + product.name, e);
+            }
+        }
+        FarmerHubApp.Product[] arr = products;
+        int n = productCount;
+        if (n == arr.length) {
+            arr = Arrays.copyOf(arr, n * 2);
+        }
+        product.id = n;
+        arr[n] = keepDecoded ? product : null;
+        products = arr;
+        productCount = n + 1;
+        // Catalog position doubles as the search doc id and the secondary index entry.
+        // While stored rows are still being indexed in the background, the indexer picks this one up too.
+        if (indexedCount == n) {
+            searchIndex.add(n, product.name, product.description);
+            indexedCount = n + 1;
+        }
+        byCategory.computeIfAbsent(product.category, k -> new DocList()).add(n);
+        bySeller.computeIfAbsent(product.listedBy.toLowerCase(), k -> new DocList()).add(n);
+        marketStats.add(product.category, product.pricePaise);
+        priceIndex.add(product.category, product.pricePaise, n);
+    }
+
+    public int productCount() {
+        return productCount;
+    }
+
+    /** Returns the product with the given id, or null if there is none. */
+    public FarmerHubApp.Product productById(int id) {
+        FarmerHubApp.Product[] arr = products; // Read the array before the count (see listProduct)
+        int n = productCount;
+        return id >= 0 && id < n ? product(arr, id) : null;
+    }
+
+    /** Returns the product at a catalog position, decoding it from the catalog files on first use. */
+    private FarmerHubApp.Product product(FarmerHubApp.Product[] arr, int i) {
+        FarmerHubApp.Product p = arr[i];
+        if (p == null) {
+            CatalogStore store = catalogStore;
+            if (store == null) throw new IllegalStateException("Catalog is closed; product " + i + " was not loaded");
+            // Racing decoders produce equal copies; keeping either one is fine
+            p = store.product(i);
+            arr[i] = p;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the products in listing order, filtered by category ("All" for everything).
+     * A category filter reads that category's posting list, so it costs O(matches).
+     * The result is a read-only snapshot view that decodes stored products only as they are read.
+     */
+    public List<FarmerHubApp.Product> browse(String category) {
+        if (category == null || ALL_CATEGORIES.equals(category)) {
+            int n = productCount;
+            return new CatalogView(products, null, n);
+        }
+        return resolve(byCategory.get(category));
+    }
+
+    /** Products listed by the given seller, oldest first. */
+    public List<FarmerHubApp.Product> productsBySeller(String username) {
+        return resolve(bySeller.get(username.toLowerCase()));
+    }
+
+    private List<FarmerHubApp.Product> resolve(DocList docs) {
+        if (docs == null) return new CatalogView(products, new int[0], 0);
+        int n = docs.size; // Size first: the arrays read after it hold at least n entries
+        int[] ids = docs.ids;
+        return new CatalogView(products, ids, n);
+    }
+
+    /**
+     * Products in a category ("All" for everything) priced from {@code minPaise} to
+     * {@code maxPaise} inclusive, cheapest first (or most expensive first), at most {@code limit}
+     * of them; equal prices keep listing order. Reads the price index, so it costs O(log n + k)
+     * for k results however large the catalog is.
+     */
+    public List<FarmerHubApp.Product> byPrice(String category, long minPaise, long maxPaise,
+                                              boolean mostExpensiveFirst, int limit) {
+        int[] ids = priceIndex.range(category, minPaise, maxPaise, mostExpensiveFirst, limit);
+        return new CatalogView(products, ids, ids.length);
+    }
+
+    /** The k cheapest products in a category ("All" for everything). */
+    public List<FarmerHubApp.Product> cheapest(String category, int k) {
+        return byPrice(category, Long.MIN_VALUE, Long.MAX_VALUE, false, k);
+    }
+
+    /** The k most expensive products in a category ("All" for everything). */
+    public List<FarmerHubApp.Product> mostExpensive(String category, int k) {
+        return byPrice(category, Long.MIN_VALUE, Long.MAX_VALUE, true, k);
+    }
+
+    /** How many products in a category are priced from minPaise to maxPaise inclusive. */
+    public int countByPrice(String category, long minPaise, long maxPaise) {
+        return priceIndex.count(category, minPaise, maxPaise);
+    }
+
+    /** Price statistics for the whole market and each category; maintained per listing, never recomputed. */
+    public List<MarketStats.Summary> marketStats() {
+        return marketStats.summaries();
+    }
+
+    /** Full-text search over product names and descriptions, best match first. */
+    public List<FarmerHubApp.Product> search(String query, int limit) {
+        int[] hits = searchIndex.search(query, limit);
+        return new CatalogView(products, hits, hits.length);
+    }
+
+    /**
+     * Search that stops early once {@code cancelled} returns true, for queries that a newer
+     * one replaces (search as you type).
+     *
+     * @throws java.util.concurrent.CancellationException if it was cancelled
+     */
+    public List<FarmerHubApp.Product> search(String query, int limit, BooleanSupplier cancelled) {
+        int[] hits = searchIndex.search(query, limit, cancelled);
+        return new CatalogView(products, hits, hits.length);
+    }
+
+    /** Full-text search that also reports how many products matched in all, for paging. */
+    public SearchResults searchWithTotal(String query, int limit) {
+        ProductSearchIndex.Hits hits = searchIndex.find(query, limit);
+        return new SearchResults(new CatalogView(products, hits.ids, hits.ids.length), hits.total);
+    }
+
+    /** The best matches of a search (at most the limit asked for) and the number of matches in all. */
+    public static final class SearchResults {
+        public final List<FarmerHubApp.Product> products;
+        public final int total;
+
+        SearchResults(List<FarmerHubApp.Product> products, int total) {
+            this.products = products;
+            this.total = total;
+        }
+    }
+
+    /** Random-access view over catalog positions (all of them when {@code ids} is null). */
+    private final class CatalogView extends AbstractList<FarmerHubApp.Product> implements RandomAccess {
+        private final FarmerHubApp.Product[] arr;
+        private final int[] ids;
+        private final int size;
+
+        CatalogView(FarmerHubApp.Product[] arr, int[] ids, int size) {
+            this.arr = arr;
+            this.ids = ids;
+            this.size = size;
+        }
+
+        @Override
+        public FarmerHubApp.Product get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            int pos = ids == null ? index : ids[index];
+            // A newer products array may exist if the catalog grew; it holds every slot this one does
+            FarmerHubApp.Product[] current = pos < arr.length ? arr : products;
+            return product(current, pos);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Append-only list of catalog positions. Appends happen under catalogLock; like the
+     * catalog itself, the array is published before the size so readers need no lock.
+     */
+    private static final class DocList {
+        volatile int[] ids = new int[8];
+        volatile int size = 0;
+
+        void add(int id) {
+            int[] arr = ids;
+            int n = size;
+            if (n == arr.length) {
+                arr = Arrays.copyOf(arr, n * 2);
+            }
+            arr[n] = id;
+            ids = arr;
+            size = n + 1;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Users ***
+    // ------------------------------------------------------------------
+
+    public FarmerHubApp.UserData findUser(String username) {
+        return users.get(username.toLowerCase());
+    }
+
+    public FarmerHubApp.UserData findUserByEmail(String email) {
+        return usersByEmail.get(email.toLowerCase());
+    }
+
+    /** Looks up a login identifier: a username first, then an email address. */
+    public FarmerHubApp.UserData findUserByLogin(String identifier) {
+        FarmerHubApp.UserData user = findUser(identifier);
+        if (user == null && identifier.indexOf('@') >= 0) {
+            user = findUserByEmail(identifier);
+        }
+        return user;
+    }
+
+    /**
+     * Atomically registers a user; returns false if the username or the email address is
+     * already taken (the same rule as {@link #registerUsers}).
+     * With a journal open, returns only after the account has been appended and fsynced.
+     *
+     * @throws UncheckedIOException if the journal write fails (the registration is rolled back)
+     */
+    public boolean registerUser(FarmerHubApp.UserData user) {
+        String key = user.username.toLowerCase();
+        if (users.putIfAbsent(key, user) != null) {
+            return false;
+        }
+        String email = emailKey(user);
+        if (email != null && usersByEmail.putIfAbsent(email, user) != null) {
+            users.remove(key, user);
+            return false;
+        }
+        UserJournal journal = userJournal;
+        if (journal != null) {
+            try {
+                journal.append(user);
+            } catch (IOException e) {
+                users.remove(key, user);
+                if (email != null) usersByEmail.remove(email, user);
+                throw new UncheckedIOException("Could not save account " + user.username, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a batch of accounts with one journal write and one fsync. An account is skipped
+     * if its username or email is taken by the time of the commit (by an earlier account in the
+     * batch or a concurrent signup). Returns the accounts that were added, in batch order.
+     *
+     * @throws UncheckedIOException if the journal write fails (the whole batch is rolled back)
+     */
+    public List<FarmerHubApp.UserData> registerUsers(List<FarmerHubApp.UserData> batch) {
+        List<FarmerHubApp.UserData> added = new ArrayList<>(batch.size());
+        for (FarmerHubApp.UserData user : batch) {
+            String key = user.username.toLowerCase();
+            if (users.putIfAbsent(key, user) != null) continue;
+            String email = emailKey(user);
+            if (email != null && usersByEmail.putIfAbsent(email, user) != null) {
+                users.remove(key, user);
+                continue;
+            }
+            added.add(user);
+        }
+        UserJournal journal = userJournal;
+        if (journal != null) {
+            try {
+                journal.appendAll(added);
+            } catch (IOException e) {
+                for (FarmerHubApp.UserData user : added) {
+                    users.remove(user.username.toLowerCase(), user);
+                    String email = emailKey(user);
+                    if (email != null) usersByEmail.remove(email, user);
+                }
+                throw new UncheckedIOException("Could not save " + added.size() + " accounts", e);
+            }
+        }
+        return added;
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    /** Lower-cased email address for the email index, or null if the account has none. */
+    private static String emailKey(FarmerHubApp.UserData user) {
+        return user.email == null || user.email.isEmpty() ? null : user.email.toLowerCase();
+    }
+
+    // Loaded accounts: the first one stored with an address keeps it
+    private void indexEmail(FarmerHubApp.UserData user) {
+        String email = emailKey(user);
+        if (email != null) usersByEmail.putIfAbsent(email, user);
+    }
+
+    private void putLoadedUser(FarmerHubApp.UserData user) {
+        users.put(user.username.toLowerCase(), user);
+        indexEmail(user);
+    }
+
+    private void clearUsers() {
+        users.clear();
+        usersByEmail.clear();
+    }
+
+    // --- Persistence (snapshot + append-only journal, see UserJournal) ---
+
+    /**
+     * Loads users from {@code <basePath>.snap} and {@code <basePath>.wal} and journals every
+     * later signup. On first run, accounts from the legacy serialized HashMap file are imported.
+     */
+    public void openUserJournal(String basePath, String legacyPath) throws IOException, ClassNotFoundException {
+        clearUsers();
+        UserJournal journal = UserJournal.open(basePath,
+                this::putLoadedUser,
+                () -> new ArrayList<>(users.values()));
+        if (users.isEmpty() && legacyPath != null && new File(legacyPath).exists()) {
+            loadUsers(legacyPath);
+            journal.compact(); // Writes the imported accounts as the first snapshot
+        }
+        userJournal = journal;
+    }
+
+    /** Flushes and compacts the journal; later signups are kept in memory only. */
+    public void closeUserJournal() throws IOException {
+        UserJournal journal = userJournal;
+        userJournal = null;
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /** Reads the legacy {@code HashMap<String, UserData>} serialized file. */
+    public void loadUsers(String path) throws IOException, ClassNotFoundException {
+        try (FileInputStream fis = new FileInputStream(path);
+             ObjectInputStream ois = new ObjectInputStream(fis)) {
+
+            @SuppressWarnings("unchecked")
+            HashMap<String, FarmerHubApp.UserData> loadedMap = (HashMap<String, FarmerHubApp.UserData>) ois.readObject();
+            clearUsers();
+            loadedMap.values().forEach(this::putLoadedUser);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Carts and Checkout ***
+    // ------------------------------------------------------------------
+
+    public Cart openCart() {
+        return new Cart();
+    }
+
+    /** Places the order for everything in the cart and empties it. Returns the order total in paise. */
+    public long checkout(Cart cart) {
+        synchronized (cart) {
+            long total = cart.subtotal();
+            cart.clear();
+            return total;
+        }
+    }
+
+    /**
+     * A single buyer's cart. Lines are kept in insertion order and keyed by product id, so two
+     * sellers' products with the same name stay separate lines. The item count and subtotal are
+     * maintained on every change, so no operation walks the lines except {@link #items()}.
+     * All methods synchronize on the cart itself so one session can be driven from several threads.
+     */
+    public static class Cart {
+        private final Map<Integer, FarmerHubApp.CartItem> lines = new LinkedHashMap<>();
+        private int itemCount = 0;
+        private long subtotal = 0; // Paise
+
+        /**
+         * Adds one unit of the product and returns the new quantity of that line.
+         *
+         * @throws IllegalArgumentException if the product has not been listed (has no id)
+         */
+        public synchronized int add(FarmerHubApp.Product product) {
+            if (product.id < 0) {
+                throw new IllegalArgumentException("Product is not in the catalog: " + product.name);
+            }
+            itemCount++;
+            subtotal += product.pricePaise;
+            FarmerHubApp.CartItem item = lines.get(product.id);
+            if (item == null) {
+                lines.put(product.id, new FarmerHubApp.CartItem(product, 1));
+                return 1;
+            }
+            item.quantity++;
+            return item.quantity;
+        }
+
+        /** Returns a copy of the cart lines, safe to read without holding the cart. */
+        public synchronized List<FarmerHubApp.CartItem> items() {
+            List<FarmerHubApp.CartItem> copy = new ArrayList<>(lines.size());
+            for (FarmerHubApp.CartItem item : lines.values()) {
+                copy.add(new FarmerHubApp.CartItem(item.product, item.quantity));
+            }
+            return copy;
+        }
+
+        public synchronized boolean isEmpty() {
+            return lines.isEmpty();
+        }
+
+        public synchronized int itemCount() {
+            return itemCount;
+        }
+
+        /** Sum of all lines, in paise. */
+        public synchronized long subtotal() {
+            return subtotal;
+        }
+
+        public synchronized void clear() {
+            lines.clear();
+            itemCount = 0;
+            subtotal = 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import java.math.BigDecimal;
+import java.util.regex.Pattern;
+
+/**
+ * Money as a whole number of paise in a {@code long}. Amounts are exact and summing them is
+ * plain long arithmetic; there is no wrapper object, so prices and totals cost nothing to
+ * carry around. This class holds the conversions and the rupee formatter.
+ *
+ * Formatting uses Indian digit grouping ("₹1,23,456.50": lakhs and crores, two decimals),
+ * which the JDK's en_IN currency format does not apply. It is thread-safe and allocation
+ * free: {@link #appendTo} writes into the caller's buffer through a per-thread scratch array,
+ * and {@link #format} answers from a small shared cache of recently formatted amounts, so
+ * repainting the same prices never builds a new String.
+ */
+public final class Money {
+
+    public static final char RUPEE = '₹';
+
+    // Direct-mapped cache of formatted amounts; entries are immutable, so racy reads are safe
+    private static final int CACHE_SIZE = 4096; // Power of two
+    private static final Entry[] cache = new Entry[CACHE_SIZE];
+
+    // Longest output: "-₹" + 17 digits + 8 commas + ".00"
+    private static final ThreadLocal<char[]> scratch = ThreadLocal.withInitial(() -> new char[32]);
+    private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    // Accepted input: plain digits, or Western (1,234,567) or Indian (12,34,567) grouping, then up to two decimals
+    private static final Pattern AMOUNT = Pattern.compile("(\\d+|\\d{1,3}(,\\d{3})+|\\d{1,2}(,\\d{2})*,\\d{3})(\\.\\d{1,2})?");
+
+    private static final class Entry {
+        final long paise;
+        final String text;
+
+        Entry(long paise, String text) {
+            this.paise = paise;
+            this.text = text;
+        }
+    }
+
+    private Money() {
+    }
+
+    // ------------------------------------------------------------------
+    // *** Conversions ***
+    // ------------------------------------------------------------------
+
+    /** Whole rupees to paise. */
+    public static long rupees(long rupees) {
+        return rupees * 100;
+    }
+
+    /**
+     * Parses a rupee amount typed by a user, such as "150", "12.5", "1,200.75" or "1,50,000".
+     * Commas must group digits the Western or the Indian way; signs and exponents are rejected.
+     *
+     * @throws NumberFormatException if the text is not such an amount, has more than two decimals
+     *         or does not fit in a long
+     */
+    public static long parse(String text) {
+        String trimmed = text.trim();
+        if (!AMOUNT.matcher(trimmed).matches()) throw new NumberFormatException("Not a rupee amount: " + text);
+        try {
+            return new BigDecimal(trimmed.replace(",", "")).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Not a whole number of paise: " + text);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Formatting ***
+    // ------------------------------------------------------------------
+
+    /** Formats an amount as rupees, e.g. "₹1,50,000.00". Cached amounts return a shared String. */
+    public static String format(long paise) {
+        int slot = (int) (paise ^ (paise >>> 32)) & (CACHE_SIZE - 1);
+        Entry entry = cache[slot];
+        if (entry != null && entry.paise == paise) {
+            return entry.text;
+        }
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        String text = appendTo(buffer, paise).toString();
+        cache[slot] = new Entry(paise, text);
+        return text;
+    }
+
+    /** Appends the formatted amount to {@code out} without allocating (beyond growing {@code out}). */
+    public static StringBuilder appendTo(StringBuilder out, long paise) {
+        char[] chars = scratch.get();
+        int pos = chars.length;
+        // Work with the negative magnitude so Long.MIN_VALUE needs no special case
+        long v = paise > 0 ? -paise : paise;
+
+        chars[--pos] = (char) ('0' - v % 10);
+        v /= 10;
+        chars[--pos] = (char) ('0' - v % 10);
+        v /= 10;
+        chars[--pos] = '.';
+
+        // Rupees: the last three digits form one group, every earlier group has two
+        int digits = 0;
+        do {
+            if (digits == 3 || (digits > 3 && (digits - 3) % 2 == 0)) {
+                chars[--pos] = ',';
+            }
+            chars[--pos] = (char) ('0' - v % 10);
+            v /= 10;
+            digits++;
+        } while (v != 0);
+
+        chars[--pos] = RUPEE;
+        if (paise < 0) {
+            chars[--pos] = '-';
+        }
+        return out.append(chars, pos, chars.length - pos);
+    }
+}
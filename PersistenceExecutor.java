@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single background thread for all FarmerHub disk I/O, so the Event Dispatch Thread never
+ * waits on a file. Dirty notifications are coalesced per name: the first {@link #markDirty}
+ * schedules one flush after the debounce delay, and every further notification for the same
+ * name before that flush runs is absorbed into it. Because everything runs on one thread,
+ * flushes never overlap each other or the startup load.
+ */
+public class PersistenceExecutor {
+
+    /** A unit of persistence work that may fail with an IOException. */
+    public interface IoTask {
+        void run() throws IOException;
+    }
+
+    private final long debounceMillis;
+    private final ScheduledThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    // --- Stats for the status display ---
+    private final AtomicLong lastFlushNanos = new AtomicLong(-1);
+    private final AtomicLong flushCount = new AtomicLong();
+
+    /** A scheduled flush and the task it will run. */
+    private static final class Pending {
+        final IoTask task;
+        ScheduledFuture<?> future;
+
+        Pending(IoTask task) {
+            this.task = task;
+        }
+    }
+
+    public PersistenceExecutor(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "FarmerHub-Persistence");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /** Runs a task on the persistence thread as soon as possible. */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Notes that the state behind {@code name} changed. The task runs once, after the debounce
+     * delay, however many notifications arrive in the meantime.
+     */
+    public void markDirty(String name, IoTask task) {
+        pending.computeIfAbsent(name, key -> {
+            Pending p = new Pending(task);
+            p.future = executor.schedule(() -> flush(key, p), debounceMillis, TimeUnit.MILLISECONDS);
+            return p;
+        });
+    }
+
+    private void flush(String name, Pending p) {
+        // Remove first: a notification that arrives while we write schedules a fresh flush
+        if (!pending.remove(name, p)) return;
+        long start = System.nanoTime();
+        try {
+            p.task.run();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Background save of " + name + " failed: " + e.getMessage());
+        } finally {
+            lastFlushNanos.set(System.nanoTime() - start);
+            flushCount.incrementAndGet();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Status ***
+    // ------------------------------------------------------------------
+
+    /** Tasks waiting on the persistence thread, including debounced flushes not yet due. */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /** Duration of the most recent debounced flush in milliseconds, or -1 if none has run. */
+    public double lastFlushMillis() {
+        long nanos = lastFlushNanos.get();
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
+    public long flushCount() {
+        return flushCount.get();
+    }
+
+    // ------------------------------------------------------------------
+    // *** Shutdown ***
+    // ------------------------------------------------------------------
+
+    /**
+     * Runs every pending flush immediately, then {@code finalTask}, and stops the thread.
+     * Returns a future that completes when everything has been written.
+     */
+    public CompletableFuture<Void> shutdown(IoTask finalTask) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        executor.execute(() -> {
+            for (String name : pending.keySet()) {
+                Pending p = pending.get(name);
+                if (p != null && p.future.cancel(false)) flush(name, p);
+            }
+            try {
+                finalTask.run();
+                done.complete(null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+            }
+        });
+        executor.shutdown();
+        return done;
+    }
+}
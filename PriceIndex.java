@@ -0,0 +1,310 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog positions sorted by price, for the whole market and for each category, so a query
+ * like "vegetables under ₹40, cheapest first" is a seek and a short walk instead of a sort.
+ *
+ * Each order is a list of small sorted leaves (a one-level B+ tree). Finding a price is a
+ * binary search over the leaves' first entries and then inside one leaf, O(log n); the matches
+ * follow in order, so a range or top-k query costs O(log n + k). A listing is inserted into its
+ * leaf in place, splitting the leaf when it is full, so the order is kept up to date per listing
+ * and never re-sorted. Only opening a stored catalog sorts, once, in {@link #load}.
+ *
+ * Entries are ordered by price, then by catalog position, so equal prices keep listing order.
+ * Writers take a write lock; readers share a read lock that is held only while ids are copied
+ * out. Leaves have a fixed 256 slots of 12 bytes each. Bulk-loaded and rising-price leaves are
+ * full, but a split in the middle of the order leaves two half-full leaves, so memory is 12 to
+ * 24 bytes per entry (about 18 for random prices) plus up to one mostly empty 3 KB leaf per
+ * order. Every product has two entries (its category and the whole market).
+ */
+public class PriceIndex {
+
+    private static final int LEAF_CAPACITY = 256;
+    private static final int[] NO_IDS = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SortedIds market = new SortedIds();
+    private final HashMap<String, SortedIds> byCategory = new HashMap<>(); // Guarded by lock
+
+    /** Adds a listed product. Safe to call from any thread. */
+    public void add(String category, long pricePaise, int id) {
+        lock.writeLock().lock();
+        try {
+            market.insert(pricePaise, id);
+            byCategory.computeIfAbsent(category, k -> new SortedIds()).insert(pricePaise, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bulk form of {@link #add} for ids 0 to n-1 of an empty index, used when a stored catalog is
+     * opened. All rows are sorted once and each order is filled with full leaves, instead of
+     * being built by n inserts that each touch a random leaf.
+     */
+    public void load(String[] categories, long[] prices, int n) {
+        lock.writeLock().lock();
+        try {
+            if (market.size != 0) throw new IllegalStateException("Price index is not empty");
+            int[] order = sortedByPrice(prices, n);
+            if (order == null) { // Prices too large to pack with the ids; insert one by one
+                for (int id = 0; id < n; id++) {
+                    market.insert(prices[id], id);
+                    byCategory.computeIfAbsent(categories[id], k -> new SortedIds()).insert(prices[id], id);
+                }
+                return;
+            }
+            // Rows arrive in market order, so each category's rows arrive in its order too
+            for (int id : order) {
+                market.append(prices[id], id);
+                byCategory.computeIfAbsent(categories[id], k -> new SortedIds()).append(prices[id], id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids 0 to n-1 sorted by (price, id), or null if some price is negative or too large to
+     * share a long with the id. Sorting packed longs avoids boxing and a comparator.
+     */
+    private static int[] sortedByPrice(long[] prices, int n) {
+        int idBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        long priceLimit = Long.MAX_VALUE >>> idBits;
+        long[] keys = new long[n];
+        for (int id = 0; id < n; id++) {
+            long price = prices[id];
+            if (price < 0 || price >= priceLimit) return null;
+            keys[id] = price << idBits | id;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        long idMask = (1L << idBits) - 1;
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (keys[i] & idMask);
+        }
+        return order;
+    }
+
+    /**
+     * Ids of the products in {@code category} (null or "All" for the whole market) priced from
+     * {@code minPaise} to {@code maxPaise} inclusive, cheapest first or most expensive first,
+     * at most {@code limit} of them.
+     */
+    public int[] range(String category, long minPaise, long maxPaise, boolean descending, int limit) {
+        lock.readLock().lock();
+        try {
+            SortedIds ids = order(category);
+            if (ids == null || limit <= 0 || minPaise > maxPaise) return NO_IDS;
+            return descending ? ids.descending(minPaise, maxPaise, limit) : ids.ascending(minPaise, maxPaise, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** How many products in {@code category} are priced from minPaise to maxPaise inclusive. */
+    public int count(String category, long minPaise, long maxPaise) {
+        lock.readLock().lock();
+        try {
+            SortedIds ids = order(category);
+            return ids == null || minPaise > maxPaise ? 0 : ids.count(minPaise, maxPaise);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private SortedIds order(String category) {
+        return category == null || MarketplaceEngine.ALL_CATEGORIES.equals(category) ? market : byCategory.get(category);
+    }
+
+    /** Orders (price, id) pairs. */
+    private static int compare(long priceA, int idA, long priceB, int idB) {
+        int c = Long.compare(priceA, priceB);
+        return c != 0 ? c : Integer.compare(idA, idB);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Leaves ***
+    // ------------------------------------------------------------------
+
+    /**
+     * One sorted order: leaves in key order, none of them empty. The first entry of every leaf is
+     * also kept in flat arrays, so finding a leaf searches contiguous memory instead of visiting
+     * each leaf it passes.
+     */
+    private static final class SortedIds {
+        Leaf[] leaves = new Leaf[4];
+        long[] firstPrices = new long[4];
+        int[] firstIds = new int[4];
+        int leafCount = 0;
+        int size = 0;
+
+        void insert(long price, int id) {
+            if (leafCount == 0) addLeaf(0, new Leaf());
+            int li = leafFor(price, id);
+            Leaf leaf = leaves[li];
+            if (leaf.size == LEAF_CAPACITY) {
+                Leaf right;
+                if (li == leafCount - 1 && compare(price, id, leaf.prices[leaf.size - 1], leaf.ids[leaf.size - 1]) > 0) {
+                    right = new Leaf(); // Appending past the end (rising prices): start a new leaf, keep this one full
+                } else {
+                    right = leaf.splitUpperHalf();
+                }
+                if (right.size == 0 || compare(price, id, right.prices[0], right.ids[0]) >= 0) {
+                    right.insert(price, id);
+                    addLeaf(li + 1, right);
+                    size++;
+                    return;
+                }
+                addLeaf(li + 1, right);
+            }
+            leaf.insert(price, id);
+            firstPrices[li] = leaf.prices[0];
+            firstIds[li] = leaf.ids[0];
+            size++;
+        }
+
+        /** Adds an entry that sorts after every entry already here (bulk loading). */
+        void append(long price, int id) {
+            Leaf last = leafCount == 0 ? null : leaves[leafCount - 1];
+            if (last == null || last.size == LEAF_CAPACITY) {
+                last = new Leaf();
+                last.insert(price, id);
+                addLeaf(leafCount, last);
+            } else {
+                last.prices[last.size] = price;
+                last.ids[last.size] = id;
+                last.size++;
+            }
+            size++;
+        }
+
+        private void addLeaf(int at, Leaf leaf) {
+            if (leafCount == leaves.length) {
+                leaves = Arrays.copyOf(leaves, leafCount * 2);
+                firstPrices = Arrays.copyOf(firstPrices, leafCount * 2);
+                firstIds = Arrays.copyOf(firstIds, leafCount * 2);
+            }
+            System.arraycopy(leaves, at, leaves, at + 1, leafCount - at);
+            System.arraycopy(firstPrices, at, firstPrices, at + 1, leafCount - at);
+            System.arraycopy(firstIds, at, firstIds, at + 1, leafCount - at);
+            leaves[at] = leaf;
+            firstPrices[at] = leaf.prices[0];
+            firstIds[at] = leaf.ids[0];
+            leafCount++;
+        }
+
+        int[] ascending(long min, long max, int limit) {
+            int[] out = new int[Math.min(limit, size)];
+            int n = 0;
+            int li = leafFor(min, Integer.MIN_VALUE);
+            int i = leafCount == 0 ? 0 : leaves[li].lowerBound(min);
+            for (; li < leafCount && n < out.length; li++, i = 0) {
+                Leaf leaf = leaves[li];
+                for (; i < leaf.size && n < out.length; i++) {
+                    if (leaf.prices[i] > max) return Arrays.copyOf(out, n);
+                    out[n++] = leaf.ids[i];
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        int[] descending(long min, long max, int limit) {
+            int[] out = new int[Math.min(limit, size)];
+            int n = 0;
+            int li = leafFor(max, Integer.MAX_VALUE);
+            int i = leafCount == 0 ? -1 : leaves[li].upperBound(max) - 1;
+            while (li >= 0 && n < out.length) {
+                Leaf leaf = leaves[li];
+                for (; i >= 0 && n < out.length; i--) {
+                    if (leaf.prices[i] < min) return Arrays.copyOf(out, n);
+                    out[n++] = leaf.ids[i];
+                }
+                if (--li >= 0) i = leaves[li].size - 1;
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        /** Whole leaves inside the range are counted by size, so this is O(log n + k / leaf size). */
+        int count(long min, long max) {
+            if (leafCount == 0) return 0;
+            int li = leafFor(min, Integer.MIN_VALUE);
+            int i = leaves[li].lowerBound(min);
+            int total = 0;
+            for (; li < leafCount; li++, i = 0) {
+                Leaf leaf = leaves[li];
+                if (leaf.prices[leaf.size - 1] <= max) {
+                    total += leaf.size - i;
+                } else {
+                    total += Math.max(0, leaf.upperBound(max) - i);
+                    break;
+                }
+            }
+            return total;
+        }
+
+        /** The last leaf whose first entry is at or before (price, id), or the first leaf. */
+        private int leafFor(long price, int id) {
+            int lo = 0, hi = leafCount - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (compare(firstPrices[mid], firstIds[mid], price, id) <= 0) lo = mid; else hi = mid - 1;
+            }
+            return Math.max(lo, 0);
+        }
+    }
+
+    /** Up to LEAF_CAPACITY entries in parallel arrays, sorted by (price, id). */
+    private static final class Leaf {
+        final long[] prices = new long[LEAF_CAPACITY];
+        final int[] ids = new int[LEAF_CAPACITY];
+        int size = 0;
+
+        void insert(long price, int id) {
+            int lo = 0, hi = size; // First entry after (price, id)
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(prices[mid], ids[mid], price, id) <= 0) lo = mid + 1; else hi = mid;
+            }
+            System.arraycopy(prices, lo, prices, lo + 1, size - lo);
+            System.arraycopy(ids, lo, ids, lo + 1, size - lo);
+            prices[lo] = price;
+            ids[lo] = id;
+            size++;
+        }
+
+        /** Moves the upper half of the entries into a new leaf, which is returned. */
+        Leaf splitUpperHalf() {
+            Leaf right = new Leaf();
+            int keep = size / 2;
+            right.size = size - keep;
+            System.arraycopy(prices, keep, right.prices, 0, right.size);
+            System.arraycopy(ids, keep, right.ids, 0, right.size);
+            size = keep;
+            return right;
+        }
+
+        /** Index of the first entry priced at least {@code price}. */
+        int lowerBound(long price) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] < price) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Index of the first entry priced above {@code price}. */
+        int upperBound(long price) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] <= price) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,641 @@
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.accessibility.*;
+import javax.swing.*;
+
+/**
+ * Virtualized marketplace grid. Instead of one component tree per product, the grid
+ * paints only the cards that intersect the visible part of its JScrollPane, laying out
+ * the text directly with FontMetrics. The "Add to Cart" button is painted as part of the
+ * card and hit-tested with the mouse, so the cost of filtering, scrolling and repainting does
+ * not depend on how many products are in the list. Photo thumbnails are requested only for
+ * the cards being painted; until one has loaded its slot shows a placeholder.
+ *
+ * Like a real button, a card's button fires when the mouse is pressed and released over it.
+ * The grid is a single focus stop: the arrow keys, Home and End move a focused card, and Space
+ * or Enter adds it to the cart. Assistive technologies see one push button per card through
+ * {@link #getAccessibleContext()}.
+ */
+public class ProductGrid extends JComponent implements Scrollable, Accessible {
+
+    private static final long serialVersionUID = 1L;
+
+    // --- Layout (matches the old GridLayout(0, 3, 15, 15) with a 15px border) ---
+    private static final int COLUMNS = 3;
+    private static final int GAP = 15;
+    private static final int INSET = 15;
+    private static final int CARD_HEIGHT = 170;
+    private static final int PADDING = 10;
+    private static final int BUTTON_HEIGHT = 34;
+    private static final int MIN_CARD_WIDTH = 200;
+    private static final int DESCRIPTION_LINES = 3;
+    private static final String PRICE_SUFFIX = " / unit";
+
+    private static final Color BORDER_COLOR = new Color(150, 150, 150);
+    private static final Color PRICE_COLOR = new Color(0, 100, 0);
+    private static final Color BUTTON_COLOR = new Color(255, 87, 34);
+    private static final Color PHOTO_PLACEHOLDER = new Color(236, 240, 236);
+    private static final Color FOCUS_COLOR = new Color(33, 150, 243);
+    private static final Stroke FOCUS_STROKE = new BasicStroke(2f);
+    private static final int PHOTO_GAP = 8;
+    private static final int TEXT_CACHE_SIZE = 512; // Several screens of cards
+
+    private List<FarmerHubApp.Product> products = new ArrayList<>();
+    private final Consumer<FarmerHubApp.Product> onAddToCart;
+    private ProductPhotos photos; // Null: no photo slots
+
+    private Font nameFont = new Font("SansSerif", Font.BOLD, 14);
+    private Font descriptionFont = new Font("SansSerif", Font.ITALIC, 12);
+    private Font priceFont = new Font("SansSerif", Font.BOLD, 14);
+    private Font buttonFont = new Font("SansSerif", Font.BOLD, 14);
+    private String addLabel = "Add to Cart";
+
+    // Index of the card whose button is under the mouse, or -1
+    private int hoverIndex = -1;
+    // Index of the card whose button the mouse was pressed on, or -1
+    private int pressedIndex = -1;
+    // Index of the card the keyboard acts on, or -1
+    private int focusIndex = -1;
+
+    // Laid-out card text, so repainting a card (scrolling, hover) does no string work.
+    // Entries are redone when the width changes and dropped when the fonts change.
+    private final Map<FarmerHubApp.Product, CardText> textCache = new IdentityHashMap<>();
+    private String buttonText;
+    private int buttonTextWidth = -1;
+
+    /** Name and description lines of one card, each valid for the width it was laid out at. */
+    private static final class CardText {
+        int nameWidth = -1;
+        String name;
+        int descriptionWidth = -1;
+        int descriptionLines;
+        List<String> description;
+    }
+
+    public ProductGrid(Consumer<FarmerHubApp.Product> onAddToCart) {
+        this.onAddToCart = onAddToCart;
+        setOpaque(false);
+        setFocusable(true);
+        ToolTipManager.sharedInstance().registerComponent(this);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHoverIndex(buttonIndexAt(e.getPoint()));
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                setHoverIndex(buttonIndexAt(e.getPoint()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHoverIndex(-1);
+            }
+
+            // Press and release rather than mouseClicked, which is dropped if the mouse moves a pixel in between
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+                requestFocusInWindow();
+                pressedIndex = buttonIndexAt(e.getPoint());
+                if (pressedIndex >= 0) setFocusIndex(pressedIndex);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+                int index = buttonIndexAt(e.getPoint());
+                boolean fire = index >= 0 && index == pressedIndex;
+                pressedIndex = -1;
+                if (fire) onAddToCart.accept(products.get(index));
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusGained(FocusEvent e) {
+                if (focusIndex < 0 && !products.isEmpty()) {
+                    setFocusIndex(firstVisibleIndex());
+                } else if (focusIndex >= 0) {
+                    repaint(cardBounds(focusIndex));
+                }
+            }
+
+            @Override
+            public void focusLost(FocusEvent e) {
+                if (focusIndex >= 0) repaint(cardBounds(focusIndex));
+            }
+        });
+
+        bindKey(KeyEvent.VK_LEFT, "previousCard", () -> moveFocus(-1));
+        bindKey(KeyEvent.VK_RIGHT, "nextCard", () -> moveFocus(1));
+        bindKey(KeyEvent.VK_UP, "cardAbove", () -> moveFocus(-COLUMNS));
+        bindKey(KeyEvent.VK_DOWN, "cardBelow", () -> moveFocus(COLUMNS));
+        bindKey(KeyEvent.VK_HOME, "firstCard", () -> moveFocus(-products.size()));
+        bindKey(KeyEvent.VK_END, "lastCard", () -> moveFocus(products.size()));
+        bindKey(KeyEvent.VK_SPACE, "addToCart", this::addFocusedToCart);
+        bindKey(KeyEvent.VK_ENTER, "addToCart", this::addFocusedToCart);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Model ***
+    // ------------------------------------------------------------------
+
+    /** Replaces the displayed products. The list must support fast random access. */
+    public void setProducts(List<FarmerHubApp.Product> products) {
+        this.products = products;
+        hoverIndex = -1;
+        pressedIndex = -1;
+        focusIndex = -1;
+        revalidate();
+        repaint();
+    }
+
+    public void setFonts(Font nameFont, Font descriptionFont, Font priceFont, Font buttonFont) {
+        this.nameFont = nameFont;
+        this.descriptionFont = descriptionFont;
+        this.priceFont = priceFont;
+        this.buttonFont = buttonFont;
+        textCache.clear();
+        buttonTextWidth = -1;
+        repaint();
+    }
+
+    public void setPhotos(ProductPhotos photos) {
+        this.photos = photos;
+        repaint();
+    }
+
+    public void setAddLabel(String addLabel) {
+        this.addLabel = addLabel;
+        buttonTextWidth = -1;
+        repaint();
+    }
+
+    // ------------------------------------------------------------------
+    // *** Geometry ***
+    // ------------------------------------------------------------------
+
+    private int rowCount() {
+        return (products.size() + COLUMNS - 1) / COLUMNS;
+    }
+
+    private int cardWidth() {
+        return Math.max(MIN_CARD_WIDTH, (getWidth() - 2 * INSET - (COLUMNS - 1) * GAP) / COLUMNS);
+    }
+
+    private Rectangle cardBounds(int index) {
+        int row = index / COLUMNS;
+        int col = index % COLUMNS;
+        int w = cardWidth();
+        return new Rectangle(INSET + col * (w + GAP), INSET + row * (CARD_HEIGHT + GAP), w, CARD_HEIGHT);
+    }
+
+    private Rectangle buttonBounds(Rectangle card) {
+        return new Rectangle(card.x + PADDING, card.y + card.height - PADDING - BUTTON_HEIGHT,
+                card.width - 2 * PADDING, BUTTON_HEIGHT);
+    }
+
+    /** Index of the card at the point, or -1 if the point is in a gap or past the end. */
+    private int cardIndexAt(Point p) {
+        int w = cardWidth();
+        int x = p.x - INSET;
+        int y = p.y - INSET;
+        if (x < 0 || y < 0) return -1;
+        int col = x / (w + GAP);
+        int row = y / (CARD_HEIGHT + GAP);
+        if (col >= COLUMNS || x % (w + GAP) >= w || y % (CARD_HEIGHT + GAP) >= CARD_HEIGHT) return -1;
+        int index = row * COLUMNS + col;
+        return index < products.size() ? index : -1;
+    }
+
+    /** First card of the topmost row that is at least partly visible. */
+    private int firstVisibleIndex() {
+        int row = Math.max(0, (getVisibleRect().y - INSET) / (CARD_HEIGHT + GAP));
+        return Math.min(products.size() - 1, row * COLUMNS);
+    }
+
+    private int buttonIndexAt(Point p) {
+        int index = cardIndexAt(p);
+        if (index < 0 || !buttonBounds(cardBounds(index)).contains(p)) return -1;
+        return index;
+    }
+
+    private void setHoverIndex(int index) {
+        if (index == hoverIndex) return;
+        if (hoverIndex >= 0) repaint(cardBounds(hoverIndex));
+        hoverIndex = index;
+        if (index >= 0) repaint(cardBounds(index));
+        setCursor(Cursor.getPredefinedCursor(index >= 0 ? Cursor.HAND_CURSOR : Cursor.DEFAULT_CURSOR));
+    }
+
+    // --- Keyboard ---
+
+    private void bindKey(int keyCode, String name, Runnable action) {
+        getInputMap(WHEN_FOCUSED).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        getActionMap().put(name, new KeyAction(action));
+    }
+
+    /** Moves the keyboard focus by {@code delta} cards, stopping at either end, and scrolls to it. */
+    private void moveFocus(int delta) {
+        if (products.isEmpty()) return;
+        int from = focusIndex >= 0 ? focusIndex : firstVisibleIndex();
+        setFocusIndex(Math.max(0, Math.min(products.size() - 1, from + delta)));
+        scrollRectToVisible(cardBounds(focusIndex));
+    }
+
+    private void setFocusIndex(int index) {
+        if (index == focusIndex) return;
+        int old = focusIndex;
+        if (old >= 0) repaint(cardBounds(old));
+        focusIndex = index;
+        if (index >= 0) repaint(cardBounds(index));
+        if (accessibleContext != null) {
+            accessibleContext.firePropertyChange(AccessibleContext.ACCESSIBLE_ACTIVE_DESCENDANT_PROPERTY,
+                    old >= 0 && old < products.size() ? new AccessibleCardButton(old) : null,
+                    index >= 0 ? new AccessibleCardButton(index) : null);
+        }
+    }
+
+    private void addFocusedToCart() {
+        if (focusIndex >= 0 && focusIndex < products.size()) {
+            onAddToCart.accept(products.get(focusIndex));
+        }
+    }
+
+    /** A key binding that runs a method of the grid. */
+    private static final class KeyAction extends AbstractAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Runnable action;
+
+        KeyAction(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            action.run();
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int index = cardIndexAt(e.getPoint());
+        return index >= 0 ? products.get(index).description : null;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = rowCount();
+        int height = rows == 0 ? 0 : 2 * INSET + rows * (CARD_HEIGHT + GAP) - GAP;
+        return new Dimension(2 * INSET + COLUMNS * MIN_CARD_WIDTH + (COLUMNS - 1) * GAP, height);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Painting (visible rows only) ***
+    // ------------------------------------------------------------------
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (products.isEmpty()) return;
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            int rowHeight = CARD_HEIGHT + GAP;
+            int firstRow = Math.max(0, (clip.y - INSET) / rowHeight);
+            int lastRow = Math.min(rowCount() - 1, (clip.y + clip.height - INSET) / rowHeight);
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = 0; col < COLUMNS; col++) {
+                    int index = row * COLUMNS + col;
+                    if (index >= products.size()) break;
+                    Rectangle card = cardBounds(index);
+                    if (card.intersects(clip)) {
+                        paintCard(g2, products.get(index), card, index == hoverIndex, index == focusIndex && hasFocus());
+                    }
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void paintCard(Graphics2D g2, FarmerHubApp.Product product, Rectangle card, boolean hover, boolean focused) {
+        g2.setColor(Color.WHITE);
+        g2.fillRoundRect(card.x, card.y, card.width - 1, card.height - 1, 8, 8);
+        g2.setColor(BORDER_COLOR);
+        g2.drawRoundRect(card.x, card.y, card.width - 1, card.height - 1, 8, 8);
+
+        int x = card.x + PADDING;
+        int textWidth = card.width - 2 * PADDING;
+        Rectangle button = buttonBounds(card);
+
+        // Name
+        g2.setFont(nameFont);
+        FontMetrics fm = g2.getFontMetrics();
+        int y = card.y + PADDING + fm.getAscent();
+        g2.setColor(Color.BLACK);
+        CardText text = cardText(product);
+        if (text.nameWidth != textWidth) {
+            text.name = ellipsize(product.name, fm, textWidth);
+            text.nameWidth = textWidth;
+        }
+        g2.drawString(text.name, x, y);
+        y += fm.getDescent() + 5;
+
+        // Price sits directly above the button
+        g2.setFont(priceFont);
+        FontMetrics pm = g2.getFontMetrics();
+        int priceBaseline = button.y - 5 - pm.getDescent();
+
+        // Photo thumbnail on the left of the description, if the product has a photo
+        int bodyHeight = priceBaseline - pm.getAscent() - 5 - y;
+        int descriptionX = x;
+        int descriptionWidth = textWidth;
+        if (photos != null && photos.hasPhoto(product.id) && bodyHeight > 0) {
+            int slotWidth = photos.thumbWidth();
+            int slotHeight = Math.min(photos.thumbHeight(), bodyHeight);
+            Image thumb = photos.thumbnail(product.id, this::repaint); // Null until loaded off the EDT
+            if (thumb == null) {
+                g2.setColor(PHOTO_PLACEHOLDER);
+                g2.fillRect(x, y, slotWidth, slotHeight);
+            } else {
+                int w = thumb.getWidth(null), h = thumb.getHeight(null);
+                if (h > slotHeight) { // Larger fonts leave less room: shrink to fit
+                    w = w * slotHeight / h;
+                    h = slotHeight;
+                }
+                g2.drawImage(thumb, x + (slotWidth - w) / 2, y + (slotHeight - h) / 2, w, h, null);
+            }
+            descriptionX += slotWidth + PHOTO_GAP;
+            descriptionWidth -= slotWidth + PHOTO_GAP;
+        }
+
+        // Description, word-wrapped into whatever room is left
+        g2.setFont(descriptionFont);
+        FontMetrics dm = g2.getFontMetrics();
+        int maxLines = Math.min(DESCRIPTION_LINES, bodyHeight / dm.getHeight());
+        g2.setColor(Color.DARK_GRAY);
+        y += dm.getAscent();
+        if (text.descriptionWidth != descriptionWidth || text.descriptionLines != maxLines) {
+            text.description = wrap(product.description, dm, descriptionWidth, maxLines);
+            text.descriptionWidth = descriptionWidth;
+            text.descriptionLines = maxLines;
+        }
+        for (String line : text.description) {
+            g2.drawString(line, descriptionX, y);
+            y += dm.getHeight();
+        }
+
+        g2.setFont(priceFont);
+        g2.setColor(PRICE_COLOR);
+        // Cached price text plus a constant suffix, so the price allocates no strings either
+        String priceText = Money.format(product.pricePaise);
+        g2.drawString(priceText, x, priceBaseline);
+        g2.drawString(PRICE_SUFFIX, x + pm.stringWidth(priceText), priceBaseline);
+
+        // Button (same colours and hover darkening as styledButton)
+        g2.setColor(hover ? BUTTON_COLOR.darker() : BUTTON_COLOR);
+        g2.fillRect(button.x, button.y, button.width, button.height);
+        g2.setFont(buttonFont);
+        FontMetrics bm = g2.getFontMetrics();
+        if (buttonTextWidth != button.width) {
+            buttonText = ellipsize(addLabel, bm, button.width - 8);
+            buttonTextWidth = button.width;
+        }
+        g2.setColor(Color.WHITE);
+        g2.drawString(buttonText, button.x + (button.width - bm.stringWidth(buttonText)) / 2,
+                button.y + (button.height - bm.getHeight()) / 2 + bm.getAscent());
+
+        if (focused) {
+            Stroke stroke = g2.getStroke();
+            g2.setColor(FOCUS_COLOR);
+            g2.setStroke(FOCUS_STROKE);
+            g2.drawRect(button.x - 2, button.y - 2, button.width + 3, button.height + 3);
+            g2.setStroke(stroke);
+        }
+    }
+
+    // --- Text layout helpers ---
+
+    private CardText cardText(FarmerHubApp.Product product) {
+        CardText text = textCache.get(product);
+        if (text == null) {
+            if (textCache.size() >= TEXT_CACHE_SIZE) textCache.clear(); // Cheaper than LRU order; refilled by the next paint
+            text = new CardText();
+            textCache.put(product, text);
+        }
+        return text;
+    }
+
+    private static String ellipsize(String text, FontMetrics fm, int width) {
+        if (fm.stringWidth(text) <= width) return text;
+        int lo = 0, hi = text.length();
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (fm.stringWidth(text.substring(0, mid) + "…") <= width) lo = mid; else hi = mid - 1;
+        }
+        return text.substring(0, lo) + "…";
+    }
+
+    private static List<String> wrap(String text, FontMetrics fm, int width, int maxLines) {
+        List<String> lines = new ArrayList<>(maxLines);
+        if (maxLines <= 0) return lines;
+        String[] words = text.split("\\s+");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            String candidate = line.length() == 0 ? words[i] : line + " " + words[i];
+            if (fm.stringWidth(candidate) <= width || line.length() == 0) {
+                line.setLength(0);
+                line.append(candidate);
+                continue;
+            }
+            if (lines.size() == maxLines - 1) {
+                // Last available line: keep the rest of the text and cut it with an ellipsis
+                StringBuilder rest = new StringBuilder(line);
+                for (int j = i; j < words.length; j++) rest.append(' ').append(words[j]);
+                lines.add(ellipsize(rest.toString(), fm, width));
+                return lines;
+            }
+            lines.add(ellipsize(line.toString(), fm, width));
+            line.setLength(0);
+            line.append(words[i]);
+        }
+        if (line.length() > 0) lines.add(ellipsize(line.toString(), fm, width));
+        return lines;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Accessibility ***
+    // ------------------------------------------------------------------
+
+    @Override
+    public AccessibleContext getAccessibleContext() {
+        if (accessibleContext == null) {
+            accessibleContext = new AccessibleProductGrid();
+        }
+        return accessibleContext;
+    }
+
+    /** The grid as a panel whose children are the painted buttons, one per card. */
+    private final class AccessibleProductGrid extends AccessibleJComponent {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PANEL;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return products.size();
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int i) {
+            return i >= 0 && i < products.size() ? new AccessibleCardButton(i) : null;
+        }
+    }
+
+    /**
+     * The "Add to Cart" button of one card. Created on request, so it names the product that
+     * was at that position when it was asked for.
+     */
+    private final class AccessibleCardButton extends AccessibleContext implements Accessible, AccessibleAction {
+        private final int index;
+        private final FarmerHubApp.Product product;
+
+        AccessibleCardButton(int index) {
+            this.index = index;
+            this.product = products.get(index);
+            setAccessibleParent(ProductGrid.this);
+        }
+
+        @Override
+        public AccessibleContext getAccessibleContext() {
+            return this;
+        }
+
+        @Override
+        public String getAccessibleName() {
+            return addLabel + ": " + product.name + ", " + Money.format(product.pricePaise) + PRICE_SUFFIX;
+        }
+
+        @Override
+        public String getAccessibleDescription() {
+            return product.description;
+        }
+
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PUSH_BUTTON;
+        }
+
+        @Override
+        public AccessibleStateSet getAccessibleStateSet() {
+            AccessibleStateSet states = new AccessibleStateSet();
+            states.add(AccessibleState.ENABLED);
+            states.add(AccessibleState.FOCUSABLE);
+            states.add(AccessibleState.VISIBLE);
+            if (isShowing() && cardBounds(index).intersects(getVisibleRect())) states.add(AccessibleState.SHOWING);
+            if (index == focusIndex && hasFocus()) states.add(AccessibleState.FOCUSED);
+            return states;
+        }
+
+        @Override
+        public int getAccessibleIndexInParent() {
+            return index;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return 0;
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int i) {
+            return null;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return ProductGrid.this.getLocale();
+        }
+
+        @Override
+        public AccessibleAction getAccessibleAction() {
+            return this;
+        }
+
+        @Override
+        public int getAccessibleActionCount() {
+            return 1;
+        }
+
+        @Override
+        public String getAccessibleActionDescription(int i) {
+            return i == 0 ? AccessibleAction.CLICK : null;
+        }
+
+        @Override
+        public boolean doAccessibleAction(int i) {
+            if (i != 0) return false;
+            onAddToCart.accept(product);
+            return true;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Scrollable ***
+    // ------------------------------------------------------------------
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? (CARD_HEIGHT + GAP) / 4 : 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL) {
+            int rowHeight = CARD_HEIGHT + GAP;
+            return Math.max(rowHeight, visibleRect.height / rowHeight * rowHeight);
+        }
+        return visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        // Stretch to the viewport like GridLayout did, unless it is narrower than three cards
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -0,0 +1,304 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.SwingUtilities;
+
+/**
+ * Product photos and their thumbnails. Originals are stored as {@code <dir>/<product id>.photo}
+ * (any format ImageIO reads). Thumbnails come from three levels, cheapest first:
+ *
+ *   1. a bounded in-memory LRU of scaled images, read on the EDT while painting;
+ *   2. JPEG thumbnails in {@code <dir>/thumbs}, valid while newer than the original;
+ *   3. decoding the original, subsampled by the reader so that a large JPEG is never decoded at
+ *      full size, then scaled to fit the thumbnail box and written to level 2.
+ *
+ * Levels 2 and 3 run on a small background pool, never on the EDT. {@link #thumbnail} returns
+ * null while an image is loading and calls back on the EDT when it is ready. Requests are taken
+ * newest first, so after a fast scroll the cards now on screen load before the ones scrolled
+ * past. Which products have a photo is kept in memory, so cards without one cost no disk access.
+ */
+public final class ProductPhotos {
+
+    private static final String PHOTO_SUFFIX = ".photo";
+    private static final int MAX_DECODE_FACTOR = 2; // Decode at up to 2x the thumbnail size, then scale down smoothly
+
+    // Cached for photos that cannot be read, so they are not retried on every paint
+    private static final Image UNREADABLE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+    private final Path dir;
+    private final Path thumbDir;
+    private final int thumbWidth;
+    private final int thumbHeight;
+    private final int memoryEntries;
+
+    private final BitSet withPhoto = new BitSet(); // Guarded by itself
+    private final Map<Integer, Image> memory = new LinkedHashMap<>(64, 0.75f, true); // Access order; guarded by itself
+    private final Set<Integer> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger generation = new AtomicInteger(); // Bumped by attach, so older loads are not cached
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor pool;
+
+    // --- Counters for the storage status ---
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong decodes = new AtomicLong();
+
+    public ProductPhotos(String dir, int thumbWidth, int thumbHeight, int memoryEntries) {
+        this.dir = Paths.get(dir);
+        this.thumbDir = this.dir.resolve("thumbs");
+        this.thumbWidth = thumbWidth;
+        this.thumbHeight = thumbHeight;
+        this.memoryEntries = memoryEntries;
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "FarmerHub-Photos-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /** Finds the stored photos. Call once, off the EDT, before the grid is shown. */
+    public void open() throws IOException {
+        ImageIO.setUseCache(false); // Decode in memory, not through temp files
+        Files.createDirectories(thumbDir);
+        BitSet found = new BitSet();
+        try (DirectoryStream<Path> photos = Files.newDirectoryStream(dir, "*" + PHOTO_SUFFIX)) {
+            for (Path photo : photos) {
+                String name = photo.getFileName().toString();
+                try {
+                    found.set(Integer.parseInt(name.substring(0, name.length() - PHOTO_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        synchronized (withPhoto) {
+            withPhoto.or(found);
+        }
+    }
+
+    public boolean hasPhoto(int productId) {
+        if (productId < 0) return false;
+        synchronized (withPhoto) {
+            return withPhoto.get(productId);
+        }
+    }
+
+    /**
+     * Stores a copy of the image file as the product's photo, replacing any earlier one.
+     * Blocks on disk I/O, so call it on the persistence thread.
+     *
+     * @throws IOException if the file is not an image ImageIO can read, or cannot be copied
+     */
+    public void attach(int productId, Path source) throws IOException {
+        if (productId < 0) throw new IllegalArgumentException("Product has not been listed");
+        ImageInputStream probe = ImageIO.createImageInputStream(source.toFile());
+        try {
+            if (probe == null || !ImageIO.getImageReaders(probe).hasNext()) {
+                throw new IOException("Not a supported image file: " + source.getFileName());
+            }
+        } finally {
+            if (probe != null) probe.close();
+        }
+        Files.createDirectories(thumbDir);
+        Path photo = photoFile(productId);
+        Path temp = photo.resolveSibling(photo.getFileName() + ".tmp");
+        Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temp, photo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        generation.incrementAndGet();
+        Files.deleteIfExists(thumbFile(productId));
+        synchronized (memory) {
+            memory.remove(productId);
+        }
+        synchronized (withPhoto) {
+            withPhoto.set(productId);
+        }
+    }
+
+    /**
+     * The product's thumbnail if it is in memory. Otherwise returns null and starts loading it
+     * (once, however often it is asked for); {@code onReady} then runs on the EDT. Also returns
+     * null for products without a readable photo.
+     */
+    public Image thumbnail(int productId, Runnable onReady) {
+        if (!hasPhoto(productId)) return null;
+        Image image;
+        synchronized (memory) {
+            image = memory.get(productId);
+        }
+        if (image != null) {
+            memoryHits.incrementAndGet();
+            return image == UNREADABLE ? null : image;
+        }
+        if (loading.add(productId)) {
+            pool.execute(new LoadTask(productId, onReady, generation.get(), sequence.incrementAndGet()));
+        }
+        return null;
+    }
+
+    public int thumbWidth() {
+        return thumbWidth;
+    }
+
+    public int thumbHeight() {
+        return thumbHeight;
+    }
+
+    /** One line for the storage status: where thumbnails have come from so far. */
+    public String stats() {
+        return String.format("Photos: %,d memory hits, %,d from the thumbnail cache, %,d decoded",
+                memoryHits.get(), diskHits.get(), decodes.get());
+    }
+
+    // ------------------------------------------------------------------
+    // *** Loading (background pool) ***
+    // ------------------------------------------------------------------
+
+    /** Newest request first, so the cards currently on screen win over ones already scrolled past. */
+    private final class LoadTask implements Runnable, Comparable<LoadTask> {
+        final int productId;
+        final Runnable onReady;
+        final int startGeneration;
+        final long order;
+
+        LoadTask(int productId, Runnable onReady, int startGeneration, long order) {
+            this.productId = productId;
+            this.onReady = onReady;
+            this.startGeneration = startGeneration;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(LoadTask other) {
+            return Long.compare(other.order, order);
+        }
+
+        @Override
+        public void run() {
+            Image image;
+            try {
+                image = load(productId, startGeneration);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not load the photo of product " + productId + ": " + e.getMessage());
+                image = UNREADABLE;
+            }
+            if (generation.get() == startGeneration) {
+                synchronized (memory) {
+                    memory.put(productId, image);
+                    if (memory.size() > memoryEntries) {
+                        Iterator<Integer> eldest = memory.keySet().iterator();
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+            loading.remove(productId);
+            SwingUtilities.invokeLater(onReady);
+        }
+    }
+
+    private Image load(int productId, int startGeneration) throws IOException {
+        Path photo = photoFile(productId);
+        Path thumb = thumbFile(productId);
+        try {
+            if (Files.getLastModifiedTime(thumb).compareTo(Files.getLastModifiedTime(photo)) >= 0) {
+                BufferedImage cached = ImageIO.read(thumb.toFile());
+                if (cached != null) {
+                    diskHits.incrementAndGet();
+                    return cached;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // No thumbnail yet (or the photo is gone, which decoding reports)
+        }
+
+        BufferedImage scaled = decodeScaled(photo);
+        decodes.incrementAndGet();
+        Path temp = thumb.resolveSibling(thumb.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+        if (ImageIO.write(scaled, "jpg", temp.toFile())) {
+            if (generation.get() == startGeneration) {
+                Files.move(temp, thumb, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.delete(temp); // A photo was replaced meanwhile; this one may be of the old image
+            }
+        }
+        return scaled;
+    }
+
+    /** Decodes the photo at reduced resolution and scales it to fit the thumbnail box. */
+    private BufferedImage decodeScaled(Path photo) throws IOException {
+        ImageInputStream in = ImageIO.createImageInputStream(photo.toFile());
+        if (in == null) throw new IOException("Cannot open " + photo);
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("Not a supported image: " + photo.getFileName());
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                double scale = Math.min((double) thumbWidth / width, (double) thumbHeight / height);
+                int targetWidth = Math.max(1, (int) Math.round(width * scale));
+                int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+                // Let the reader skip pixels: a 4000px photo for a 64px thumbnail decodes at 128px
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width / (targetWidth * MAX_DECODE_FACTOR), height / (targetHeight * MAX_DECODE_FACTOR)));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                BufferedImage thumb = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = thumb.createGraphics();
+                try {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    g.setColor(Color.WHITE); // Transparent PNG areas become white, as on the card
+                    g.fillRect(0, 0, targetWidth, targetHeight);
+                    g.drawImage(decoded, 0, 0, targetWidth, targetHeight, null);
+                } finally {
+                    g.dispose();
+                }
+                return thumb;
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private Path photoFile(int productId) {
+        return dir.resolve(productId + PHOTO_SUFFIX);
+    }
+
+    private Path thumbFile(int productId) {
+        return thumbDir.resolve(productId + "-" + thumbWidth + "x" + thumbHeight + ".jpg");
+    }
+}
@@ -0,0 +1,436 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Inverted index over product names and descriptions, ranked with BM25.
+ * Documents are identified by their catalog position, so postings are appended in
+ * increasing order and stay sorted without any re-sorting.
+ *
+ * The tokenizer understands the four app languages: English words plus Telugu, Tamil
+ * and Devanagari words, whose vowel signs and viramas are combining marks that must
+ * stay inside the token instead of splitting it.
+ */
+public class ProductSearchIndex {
+
+    // BM25 tuning and field weighting (a name hit counts as much as three description hits)
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // How many dictionary terms the last (still being typed) query word may expand to
+    private static final int MAX_PREFIX_EXPANSION = 64;
+    // Postings scored between checks of a search's cancel flag (a power of two)
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    private static final BooleanSupplier NEVER_CANCELLED = () -> false;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private int[] docLengths = new int[64];
+    private int docCount = 0;
+    private long totalLength = 0;
+
+    /** Posting list for one term: parallel arrays of doc ids and weighted term frequencies. */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size = 0;
+
+        void add(int doc, int freq) {
+            if (size > 0 && docs[size - 1] == doc) {
+                freqs[size - 1] += freq;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Indexing ***
+    // ------------------------------------------------------------------
+
+    /** Indexes a product under the given doc id. Ids must be added in increasing order. */
+    public void add(int docId, String name, String description) {
+        List<String> nameTokens = tokenize(name);
+        List<String> descTokens = tokenize(description);
+
+        lock.writeLock().lock();
+        try {
+            if (docId >= docLengths.length) {
+                docLengths = Arrays.copyOf(docLengths, Math.max(docId + 1, docLengths.length * 2));
+            }
+            int length = nameTokens.size() * NAME_WEIGHT + descTokens.size() * DESCRIPTION_WEIGHT;
+            docLengths[docId] = length;
+            docCount = Math.max(docCount, docId + 1);
+            totalLength += length;
+
+            for (String t : nameTokens) {
+                terms.computeIfAbsent(t, k -> new Postings()).add(docId, NAME_WEIGHT);
+            }
+            for (String t : descTokens) {
+                terms.computeIfAbsent(t, k -> new Postings()).add(docId, DESCRIPTION_WEIGHT);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Querying ***
+    // ------------------------------------------------------------------
+
+    /**
+     * Returns up to {@code limit} doc ids, best match first. Every query word is matched
+     * exactly, except the last one which also matches as a prefix (so "tom" finds "tomatoes").
+     * Products containing all words are preferred; if there are none, any word may match.
+     */
+    public int[] search(String query, int limit) {
+        return search(query, limit, NEVER_CANCELLED);
+    }
+
+    /**
+     * Same as {@link #search(String, int)}, but gives up once {@code cancelled} returns true.
+     * The flag is polled every CANCEL_CHECK_INTERVAL postings; a cancelled search releases the
+     * index read lock before the exception propagates, so writers are not held up by it.
+     *
+     * @throws CancellationException if the search was cancelled
+     */
+    public int[] search(String query, int limit, BooleanSupplier cancelled) {
+        return find(query, limit, cancelled).ids;
+    }
+
+    /** The best doc ids of a search, and how many documents matched in all. */
+    public static final class Hits {
+        private static final Hits NONE = new Hits(new int[0], 0);
+
+        public final int[] ids;
+        public final int total;
+
+        Hits(int[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+
+    /**
+     * Same as {@link #search(String, int)}, plus the number of matching documents (every match
+     * is scored anyway, so the count is free).
+     */
+    public Hits find(String query, int limit) {
+        return find(query, limit, NEVER_CANCELLED);
+    }
+
+    /**
+     * Same as {@link #find(String, int)}, but cancellable like
+     * {@link #search(String, int, BooleanSupplier)}.
+     *
+     * @throws CancellationException if the search was cancelled
+     */
+    public Hits find(String query, int limit, BooleanSupplier cancelled) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) return Hits.NONE;
+
+        lock.readLock().lock();
+        try {
+            if (docCount == 0) return Hits.NONE;
+            float avgLength = Math.max(1f, (float) totalLength / docCount);
+
+            List<List<Match>> resolved = new ArrayList<>(words.size());
+            for (int w = 0; w < words.size(); w++) {
+                resolved.add(resolve(words.get(w), w == words.size() - 1));
+            }
+
+            ScoreTable scores = new ScoreTable();
+            matchAll(resolved, avgLength, scores, cancelled);
+            if (scores.size == 0) {
+                for (List<Match> word : resolved) {
+                    for (Match m : word) score(m, avgLength, scores, cancelled);
+                }
+            }
+            if (cancelled.getAsBoolean()) throw new CancellationException();
+            return new Hits(scores.top(limit), scores.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** One dictionary term a query word matched, with its weight (boost times idf) for that word. */
+    private final class Match {
+        final Postings postings;
+        final float weight;
+        int cursor; // Position of the last probe; docs are visited in increasing order
+
+        Match(Postings postings, float boost) {
+            this.postings = postings;
+            this.weight = boost * idf(postings);
+        }
+    }
+
+    private List<Match> resolve(String word, boolean prefix) {
+        List<Match> matches = new ArrayList<>(1);
+        if (!prefix) {
+            Postings p = terms.get(word);
+            if (p != null) matches.add(new Match(p, 1f));
+            return matches;
+        }
+        for (Map.Entry<String, Postings> e : terms.tailMap(word, true).entrySet()) {
+            if (!e.getKey().startsWith(word) || matches.size() >= MAX_PREFIX_EXPANSION) break;
+            // Exact hits outrank prefix completions of the same word
+            matches.add(new Match(e.getValue(), e.getKey().length() == word.length() ? 1f : 0.5f));
+        }
+        return matches;
+    }
+
+    /**
+     * Conjunctive match: walks the shortest word's postings and probes the others with
+     * forward-only galloping cursors, so cost follows the rarest word instead of the most common one.
+     */
+    private void matchAll(List<List<Match>> resolved, float avgLength, ScoreTable scores, BooleanSupplier cancelled) {
+        List<Match> driver = null;
+        long driverSize = Long.MAX_VALUE;
+        for (List<Match> word : resolved) {
+            long size = 0;
+            for (Match m : word) size += m.postings.size;
+            if (size == 0) return;
+            if (size < driverSize) {
+                driver = word;
+                driverSize = size;
+            }
+        }
+
+        for (Match d : driver) {
+            for (List<Match> word : resolved) {
+                for (Match m : word) m.cursor = 0;
+            }
+            for (int i = 0; i < d.postings.size; i++) {
+                checkCancelled(i, cancelled);
+                int doc = d.postings.docs[i];
+                if (scores.contains(doc)) continue;
+                float total = 0;
+                for (List<Match> word : resolved) {
+                    float s = wordScore(word, doc, avgLength);
+                    if (s < 0) {
+                        total = -1;
+                        break;
+                    }
+                    total += s;
+                }
+                if (total >= 0) scores.add(doc, total);
+            }
+        }
+    }
+
+    /** Score of one query word for a document, or -1 if none of its terms occur there. */
+    private float wordScore(List<Match> word, int doc, float avgLength) {
+        float sum = -1;
+        for (Match m : word) {
+            int i = seek(m, doc);
+            if (i >= 0) {
+                sum = Math.max(sum, 0) + m.weight * bm25(m.postings, i, avgLength);
+            }
+        }
+        return sum;
+    }
+
+    /** Moves the cursor to the first posting >= doc; returns its index if it is doc, else -1. */
+    private static int seek(Match m, int doc) {
+        int[] docs = m.postings.docs;
+        int size = m.postings.size;
+        int lo = m.cursor;
+        if (lo >= size) return -1;
+        if (docs[lo] >= doc) return docs[lo] == doc ? lo : -1;
+
+        // Gallop forward until we overshoot, then binary search the last step
+        int step = 1;
+        int hi = lo + 1;
+        while (hi < size && docs[hi] < doc) {
+            lo = hi;
+            step <<= 1;
+            hi = lo + step;
+        }
+        int i = Arrays.binarySearch(docs, lo + 1, Math.min(hi + 1, size), doc);
+        m.cursor = i >= 0 ? i : -i - 1;
+        return i >= 0 ? i : -1;
+    }
+
+    private void score(Match m, float avgLength, ScoreTable scores, BooleanSupplier cancelled) {
+        Postings p = m.postings;
+        for (int i = 0; i < p.size; i++) {
+            checkCancelled(i, cancelled);
+            scores.add(p.docs[i], m.weight * bm25(p, i, avgLength));
+        }
+    }
+
+    private static void checkCancelled(int i, BooleanSupplier cancelled) {
+        if ((i & (CANCEL_CHECK_INTERVAL - 1)) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+    }
+
+    private float idf(Postings p) {
+        return (float) Math.log(1 + (docCount - p.size + 0.5) / (p.size + 0.5));
+    }
+
+    /** BM25 term-frequency part for the i-th posting; multiply by the term's idf. */
+    private float bm25(Postings p, int i, float avgLength) {
+        float tf = p.freqs[i];
+        float norm = K1 * (1 - B + B * docLengths[p.docs[i]] / avgLength);
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Tokenizer (English, Telugu, Tamil, Hindi) ***
+    // ------------------------------------------------------------------
+
+    /**
+     * Splits text into lower-cased NFC tokens. A token is a run of letters, digits and
+     * combining marks; ZWJ/ZWNJ are dropped so the same word matches with or without them.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) return tokens;
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (cp == 0x200C || cp == 0x200D) continue;
+            if (isWordPart(cp, current.length() > 0)) {
+                current.appendCodePoint(Character.toLowerCase(cp));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) tokens.add(current.toString());
+        return tokens;
+    }
+
+    private static boolean isWordPart(int cp, boolean inWord) {
+        if (Character.isLetterOrDigit(cp)) return true;
+        if (!inWord) return false;
+        int type = Character.getType(cp);
+        // Matras, viramas, anusvara and visarga continue the current word
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Score accumulation ***
+    // ------------------------------------------------------------------
+
+    /** Open-addressing doc id -> score map, so scoring doesn't box an Integer per posting. */
+    private static final class ScoreTable {
+        private int[] keys = new int[64];
+        private float[] values = new float[64];
+        private boolean[] used = new boolean[64];
+        private int size = 0;
+
+        boolean contains(int doc) {
+            int mask = keys.length - 1;
+            int h = doc * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (used[slot]) {
+                if (keys[slot] == doc) return true;
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        void add(int doc, float score) {
+            if (size * 2 >= keys.length) grow();
+            int mask = keys.length - 1;
+            int h = doc * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (used[slot] && keys[slot] != doc) slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = doc;
+                size++;
+            }
+            values[slot] += score;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new float[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) add(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        /** Highest scores first; ties go to the older listing. */
+        int[] top(int limit) {
+            // Bounded binary min-heap of slots: the root is the weakest of the current top hits
+            int[] heap = new int[Math.min(limit, size)];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (!used[i]) continue;
+                if (n < heap.length) {
+                    heap[n] = i;
+                    siftUp(heap, n++);
+                } else if (better(i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(heap, 0, n);
+                }
+            }
+            int[] result = new int[n];
+            for (int i = n - 1; i >= 0; i--) {
+                result[i] = keys[heap[0]];
+                heap[0] = heap[i];
+                siftDown(heap, 0, i);
+            }
+            return result;
+        }
+
+        private boolean better(int a, int b) {
+            int c = Float.compare(values[a], values[b]);
+            return c != 0 ? c > 0 : keys[a] < keys[b];
+        }
+
+        private void siftUp(int[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], heap[i])) break;
+                int t = heap[parent]; heap[parent] = heap[i]; heap[i] = t;
+                i = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int i, int n) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, min = i;
+                if (l < n && better(heap[min], heap[l])) min = l;
+                if (r < n && better(heap[min], heap[r])) min = r;
+                if (min == i) return;
+                int t = heap[min]; heap[min] = heap[i]; heap[i] = t;
+                i = min;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark for the HTTP server mode. It starts a MarketServer on localhost over an
+ * in-memory engine with generated accounts and listings, logs in every session, then runs
+ * kiosk clients that browse, search, fill carts and check out against random sessions for a
+ * fixed time. All data and client choices come from fixed seeds, so runs are comparable.
+ *
+ *   java ServerBenchmark [--sessions 2000] [--clients 200] [--seconds 20] [--warmup 5] [--products 20000]
+ *
+ * Run it once as is and once with -Dfarmerhub.server.virtualThreads=false to compare virtual
+ * threads with the platform thread pool (on Java 17 both runs use the pool).
+ */
+public final class ServerBenchmark {
+
+    private static final String[] NAMES = {"Tomato", "Onion", "Potato", "Apple", "Banana", "Mango", "Rice", "Wheat", "Spinach", "Chilli"};
+    private static final String PASSWORD = "Bench@2024";
+
+    private enum Call { BROWSE, SEARCH, ADD_TO_CART, VIEW_CART, CHECKOUT }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = 2000;
+        int clients = 200;
+        int seconds = 20;
+        int warmup = 5;
+        int products = 20000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sessions": sessions = Integer.parseInt(args[++i]); break;
+                case "--clients": clients = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--products": products = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        MarketplaceEngine engine = seed(sessions, products);
+        MarketServer server = MarketServer.start(engine, new InetSocketAddress("localhost", 0));
+        String base = "http://localhost:" + server.port() + "/api/";
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            long start = System.nanoTime();
+            String[] tokens = logIn(http, base, sessions, pool);
+            double loginSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Server: %s; %,d sessions logged in in %.2f s%n", server.executorName(), server.sessionCount(), loginSeconds);
+
+            if (warmup > 0) run(http, base, tokens, clients, warmup, products, pool, 1);
+            long[][] latencies = run(http, base, tokens, clients, seconds, products, pool, 2);
+
+            long total = 0;
+            System.out.println();
+            System.out.println("Localhost, " + clients + " concurrent clients over " + sessions + " sessions, " + seconds + " s");
+            System.out.println("call              requests       p50 ms     p99 ms     max ms");
+            for (Call call : Call.values()) {
+                long[] times = latencies[call.ordinal()];
+                total += times.length;
+                Arrays.sort(times);
+                System.out.printf("%-14s %,11d   %8.2f   %8.2f   %8.2f%n", call.name().toLowerCase(), times.length,
+                        percentile(times, 0.50), percentile(times, 0.99), times.length == 0 ? 0 : times[times.length - 1] / 1e6);
+            }
+            System.out.printf("throughput     %,11.0f requests/s%n", total / (double) seconds);
+        } finally {
+            server.stop();
+            pool.shutdownNow();
+        }
+    }
+
+    /** An in-memory engine with generated accounts and listings. */
+    private static MarketplaceEngine seed(int sessions, int products) {
+        MarketplaceEngine engine = new MarketplaceEngine();
+        List<FarmerHubApp.UserData> users = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            users.add(new FarmerHubApp.UserData("kiosk" + i, PASSWORD, "kiosk" + i + "@bench.test"));
+        }
+        engine.registerUsers(users);
+        Random random = new Random(42);
+        List<FarmerHubApp.Product> batch = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)];
+            batch.add(new FarmerHubApp.Product(name + " lot " + i, "Fresh " + name.toLowerCase() + " from farm " + (i % 500),
+                    MarketplaceEngine.CATEGORIES.get(i % MarketplaceEngine.CATEGORIES.size()), 100 + random.nextInt(100_000), "farmer" + (i % 300)));
+        }
+        engine.listProducts(batch);
+        return engine;
+    }
+
+    private static String[] logIn(HttpClient http, String base, int sessions, ExecutorService pool) throws Exception {
+        String[] tokens = new String[sessions];
+        List<Future<?>> logins = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            int n = i;
+            logins.add(pool.submit(() -> {
+                String body = send(http, post(base + "login", "login=kiosk" + n + "&password=" + PASSWORD, null));
+                int start = body.indexOf("\"token\":\"") + 9;
+                tokens[n] = body.substring(start, body.indexOf('"', start));
+                return null;
+            }));
+        }
+        for (Future<?> login : logins) login.get();
+        return tokens;
+    }
+
+    /** Runs the clients for the given time; returns the latencies (ns) per call type. */
+    private static long[][] run(HttpClient http, String base, String[] tokens, int clients, int seconds,
+                                int products, ExecutorService pool, long seedBase) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][][] perClient = new long[clients][][];
+        int[][] counts = new int[clients][Call.values().length];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            pool.execute(() -> {
+                Random random = new Random(seedBase * 1_000_003 + client);
+                long[][] times = new long[Call.values().length][1024];
+                int[] n = counts[client];
+                try {
+                    while (System.nanoTime() < deadline) {
+                        String token = tokens[random.nextInt(tokens.length)];
+                        int roll = random.nextInt(100);
+                        Call call = roll < 40 ? Call.BROWSE : roll < 60 ? Call.SEARCH : roll < 88 ? Call.ADD_TO_CART
+                                : roll < 95 ? Call.VIEW_CART : Call.CHECKOUT;
+                        HttpRequest request;
+                        switch (call) {
+                            case BROWSE:
+                                request = get(base + "products?category=" + MarketplaceEngine.CATEGORIES.get(random.nextInt(MarketplaceEngine.CATEGORIES.size()))
+                                        + "&offset=" + random.nextInt(Math.max(1, products / MarketplaceEngine.CATEGORIES.size() - 50)) + "&limit=50", null);
+                                break;
+                            case SEARCH:
+                                request = get(base + "products?q=" + NAMES[random.nextInt(NAMES.length)] + "&limit=20", null);
+                                break;
+                            case ADD_TO_CART:
+                                request = post(base + "cart/items", "productId=" + random.nextInt(products), token);
+                                break;
+                            case VIEW_CART:
+                                request = get(base + "cart", token);
+                                break;
+                            default:
+                                request = post(base + "checkout", "", token);
+                        }
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        long elapsed = System.nanoTime() - start;
+                        if (response.statusCode() != 200 && response.statusCode() != 409) { // 409: checkout of an empty cart
+                            failures.incrementAndGet();
+                        }
+                        int k = call.ordinal();
+                        if (n[k] == times[k].length) times[k] = Arrays.copyOf(times[k], n[k] * 2);
+                        times[k][n[k]++] = elapsed;
+                    }
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    perClient[client] = times;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (failures.get() > 0) System.err.println(failures.get() + " requests failed");
+
+        long[][] merged = new long[Call.values().length][];
+        for (int k = 0; k < merged.length; k++) {
+            int total = 0;
+            for (int[] n : counts) total += n[k];
+            merged[k] = new long[total];
+            int at = 0;
+            for (int c = 0; c < clients; c++) {
+                System.arraycopy(perClient[c][k], 0, merged[k], at, counts[c][k]);
+                at += counts[c][k];
+            }
+        }
+        return merged;
+    }
+
+    private static HttpRequest get(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+
+    private static HttpRequest post(String url, String form, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+
+    private static String send(HttpClient http, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,235 @@
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logged-in sessions: a token maps to the user and their cart. Lookups go through a
+ * concurrent map and take no lock.
+ *
+ * Sessions are also kept in one list, least recently used first. Every session has the same
+ * idle timeout, so this order is also the order in which they expire. Expiry is one timer set
+ * for the head of the list: when it fires it removes the expired sessions from the front and
+ * sets itself for the next head, so it touches only the sessions it removes. The same list
+ * gives the memory cap: opening a session beyond {@code maxSessions} evicts the least
+ * recently used one. The heap is therefore bounded by maxSessions times the size of a session
+ * (its user reference and cart lines).
+ *
+ * A touch moves a session to the back of the list under a short lock, but at most once per
+ * {@link #TOUCH_GRANULARITY_MS} per session, so busy sessions do not contend on every request.
+ * Idle timeouts are accurate to that granularity. A lookup never returns an expired session,
+ * even if the timer has not run yet.
+ */
+public final class SessionStore {
+
+    public static final long DEFAULT_TTL_MINUTES = 30;
+    public static final int DEFAULT_MAX_SESSIONS = 50_000;
+    public static final long TOUCH_GRANULARITY_MS = 1000;
+
+    private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(TOUCH_GRANULARITY_MS);
+    private static final int TOKEN_BYTES = 18; // 144 random bits, 24 URL-safe characters
+
+    /** Why a session ended. */
+    public enum Removal { LOGOUT, EXPIRED, EVICTED }
+
+    /** Called after a session is removed, on the thread that removed it (the timer thread for EXPIRED). */
+    public interface Listener {
+        void sessionRemoved(Session session, Removal removal);
+    }
+
+    public static final class Session {
+        public final String token;
+        public final FarmerHubApp.UserData user;
+        public final MarketplaceEngine.Cart cart;
+
+        // --- Access order (guarded by the store's lock; lastAccess is also read without it) ---
+        private volatile long lastAccess; // System.nanoTime()
+        private Session prev, next;
+        private boolean linked;
+
+        Session(String token, FarmerHubApp.UserData user, MarketplaceEngine.Cart cart, long now) {
+            this.token = token;
+            this.user = user;
+            this.cart = cart;
+            this.lastAccess = now;
+        }
+    }
+
+    private final MarketplaceEngine engine;
+    private final long ttlNanos;
+    private final int maxSessions;
+    private final Listener listener;
+    private final Map<String, Session> byToken = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService timer;
+
+    // --- Guarded by lock ---
+    private final Object lock = new Object();
+    private Session head, tail; // Least and most recently used
+    private ScheduledFuture<?> pendingExpiry;
+
+    public SessionStore(MarketplaceEngine engine, long ttlMillis, int maxSessions, Listener listener) {
+        if (ttlMillis <= 0 || maxSessions <= 0) {
+            throw new IllegalArgumentException("TTL and session cap must be positive: " + ttlMillis + " ms, " + maxSessions);
+        }
+        this.engine = engine;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSessions = maxSessions;
+        this.listener = listener;
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "FarmerHub-Sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A store configured by {@code -Dfarmerhub.session.ttlMinutes} (default 30) and
+     * {@code -Dfarmerhub.session.max} (default 50,000).
+     */
+    public static SessionStore fromSystemProperties(MarketplaceEngine engine, Listener listener) {
+        long ttlMinutes = Long.getLong("farmerhub.session.ttlMinutes", DEFAULT_TTL_MINUTES);
+        int max = Integer.getInteger("farmerhub.session.max", DEFAULT_MAX_SESSIONS);
+        return new SessionStore(engine, TimeUnit.MINUTES.toMillis(ttlMinutes), max, listener);
+    }
+
+    /** Starts a session with an empty cart, evicting the least recently used one if the store is full. */
+    public Session open(FarmerHubApp.UserData user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, user, engine.openCart(), System.nanoTime());
+
+        List<Session> evicted = null;
+        synchronized (lock) {
+            byToken.put(token, session);
+            linkLast(session);
+            while (byToken.size() > maxSessions && head != session) {
+                if (evicted == null) evicted = new ArrayList<>(1);
+                evicted.add(unlinkAndRemove(head));
+            }
+            if (pendingExpiry == null) scheduleExpiry(session.lastAccess + ttlNanos);
+        }
+        fireRemoved(evicted, Removal.EVICTED);
+        return session;
+    }
+
+    /** Returns the live session for a token and marks it used, or null if there is none. */
+    public Session get(String token) {
+        if (token == null) return null;
+        Session session = byToken.get(token);
+        if (session == null) return null;
+        long now = System.nanoTime();
+        long idle = now - session.lastAccess;
+        if (idle >= ttlNanos) {
+            // Expired, and the timer has not reached it yet
+            if (remove(session)) fireRemoved(session, Removal.EXPIRED);
+            return null;
+        }
+        if (idle >= TOUCH_GRANULARITY_NANOS) {
+            synchronized (lock) {
+                if (session.linked) {
+                    session.lastAccess = now;
+                    unlink(session);
+                    linkLast(session);
+                }
+            }
+        }
+        return session;
+    }
+
+    /** Marks a session used; same as {@link #get} with its token. Returns false if it has ended. */
+    public boolean touch(Session session) {
+        return get(session.token) == session;
+    }
+
+    /** Ends a session (logout). Returns false if it had already ended. */
+    public boolean close(String token) {
+        Session session = token == null ? null : byToken.get(token);
+        if (session == null || !remove(session)) return false;
+        fireRemoved(session, Removal.LOGOUT);
+        return true;
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    /** Stops the expiry timer; sessions stay readable but no longer expire on their own. */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------
+    // *** Expiry ***
+    // ------------------------------------------------------------------
+
+    private void scheduleExpiry(long dueNanos) {
+        long delay = Math.max(0, dueNanos - System.nanoTime()) + TOUCH_GRANULARITY_NANOS; // Batch nearby expiries
+        pendingExpiry = timer.isShutdown() ? null : timer.schedule(this::expire, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /** Timer task: removes expired sessions from the front of the list, then waits for the new front. */
+    private void expire() {
+        List<Session> expired = new ArrayList<>();
+        synchronized (lock) {
+            pendingExpiry = null;
+            long now = System.nanoTime();
+            while (head != null && now - head.lastAccess >= ttlNanos) {
+                expired.add(unlinkAndRemove(head));
+            }
+            if (head != null) scheduleExpiry(head.lastAccess + ttlNanos);
+        }
+        fireRemoved(expired, Removal.EXPIRED);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Access-order list ***
+    // ------------------------------------------------------------------
+
+    private boolean remove(Session session) {
+        synchronized (lock) {
+            if (!session.linked) return false;
+            unlinkAndRemove(session);
+            return true;
+        }
+    }
+
+    // unlinkAndRemove, linkLast and unlink: callers hold lock
+    private Session unlinkAndRemove(Session session) {
+        unlink(session);
+        byToken.remove(session.token, session);
+        return session;
+    }
+
+    private void linkLast(Session session) {
+        session.prev = tail;
+        session.next = null;
+        if (tail == null) head = session; else tail.next = session;
+        tail = session;
+        session.linked = true;
+    }
+
+    private void unlink(Session session) {
+        if (session.prev == null) head = session.next; else session.prev.next = session.next;
+        if (session.next == null) tail = session.prev; else session.next.prev = session.prev;
+        session.prev = null;
+        session.next = null;
+        session.linked = false;
+    }
+
+    private void fireRemoved(Session session, Removal removal) {
+        if (listener != null) listener.sessionRemoved(session, removal);
+    }
+
+    private void fireRemoved(List<Session> sessions, Removal removal) {
+        if (sessions == null || listener == null) return;
+        for (Session session : sessions) listener.sessionRemoved(session, removal);
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Startup benchmark: launches FarmerHub in fresh JVMs, with and without the AppCDS archive,
+ * and measures the time until the login card is interactive (painted, with saved accounts
+ * loaded). The app reports that moment by printing {@link #READY_MARKER} when started with
+ * {@code -Dfarmerhub.benchmark=true}, and then closes itself.
+ *
+ *   java StartupBenchmark [--runs 10] [--archive farmerhub.jsa] [--train] [--headless] [--fail-above ms]
+ *
+ * --train      first creates the archive with a CdsTraining run
+ * --headless   measures the headless training flow instead of the window (for machines without a display)
+ * --fail-above exits with status 1 if the median launch-to-ready time with the archive exceeds the limit
+ */
+public final class StartupBenchmark {
+
+    /** Printed by the app (and by CdsTraining) once the login card is interactive, followed by ms since class load. */
+    public static final String READY_MARKER = "FARMERHUB_READY";
+
+    public static void main(String[] args) throws Exception {
+        int runs = 10;
+        String archive = "farmerhub.jsa";
+        boolean train = false;
+        boolean headless = false;
+        double failAbove = -1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs": runs = Integer.parseInt(args[++i]); break;
+                case "--archive": archive = args[++i]; break;
+                case "--train": train = true; break;
+                case "--headless": headless = true; break;
+                case "--fail-above": failAbove = Double.parseDouble(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        if (train) {
+            long start = System.nanoTime();
+            launch(Arrays.asList("-XX:ArchiveClassesAtExit=" + archive), true);
+            System.out.printf("Archive %s written in %.0f ms (%d KB)%n", archive,
+                    (System.nanoTime() - start) / 1e6, Files.size(Paths.get(archive)) / 1024);
+        }
+        if (!Files.exists(Paths.get(archive))) {
+            System.err.println("No archive at " + archive + "; run with --train first.");
+            System.exit(2);
+        }
+
+        launch(new ArrayList<>(), headless); // Warm the OS file cache so the first measured run is not an outlier
+        double[][] without = measure(new ArrayList<>(), headless, runs);
+        double[][] with = measure(Arrays.asList("-XX:SharedArchiveFile=" + archive, "-Xshare:auto"), headless, runs);
+
+        System.out.println();
+        System.out.println("Time to interactive login card (" + runs + " runs each, " + (headless ? "headless flow" : "window") + ")");
+        System.out.println("                    launch-to-ready (median / min / max)     in-process (median)");
+        report("default CDS only", without);
+        report("with AppCDS archive", with);
+
+        double median = median(with[0]);
+        if (failAbove > 0 && median > failAbove) {
+            System.err.printf("FAIL: median %.0f ms with the archive is above the %.0f ms limit%n", median, failAbove);
+            System.exit(1);
+        }
+    }
+
+    /** Returns {launch-to-ready wall times, in-process times} in milliseconds. */
+    private static double[][] measure(List<String> jvmOptions, boolean headless, int runs) throws IOException, InterruptedException {
+        double[][] times = new double[2][runs];
+        for (int i = 0; i < runs; i++) {
+            double[] t = launch(jvmOptions, headless);
+            times[0][i] = t[0];
+            times[1][i] = t[1];
+        }
+        return times;
+    }
+
+    /** Starts one app JVM and waits for the ready marker and for the process to exit. */
+    private static double[] launch(List<String> jvmOptions, boolean headless) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-Dfarmerhub.benchmark=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("FarmerHubApp");
+        if (headless || jvmOptions.stream().anyMatch(o -> o.startsWith("-XX:ArchiveClassesAtExit"))) {
+            command.add("--cds-train");
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        double ready = -1;
+        double inProcess = -1;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (ready < 0 && line.startsWith(READY_MARKER)) {
+                    ready = (System.nanoTime() - start) / 1e6;
+                    inProcess = Double.parseDouble(line.substring(READY_MARKER.length()).trim());
+                }
+            }
+        }
+        int status = process.waitFor();
+        if (ready < 0 || status != 0) {
+            throw new IOException("App run failed (exit " + status + ", ready marker " + (ready < 0 ? "missing" : "seen")
+                    + "): " + String.join(" ", command));
+        }
+        return new double[]{ready, inProcess};
+    }
+
+    private static void report(String label, double[][] times) {
+        double[] sorted = times[0].clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-20s %8.0f / %6.0f / %6.0f ms            %8.0f ms%n",
+                label, median(times[0]), sorted[0], sorted[sorted.length - 1], median(times[1]));
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times the startup phases. Each phase reports its own duration and the time since launch
+ * when it finished, so phases that run in parallel (font probing, data loading, building
+ * the login card) can be read side by side. Thread-safe.
+ *
+ * Phases are recorded silently. They are printed only in benchmark runs
+ * ({@code -Dfarmerhub.benchmark=true}), in the CDS training run, or with
+ * {@code -Dfarmerhub.startupTimes=true}.
+ */
+public final class StartupTimer {
+
+    private static final long LAUNCH_NANOS = System.nanoTime();
+    private static final Map<String, long[]> phases = new LinkedHashMap<>(); // name -> {duration, end} in nanos
+    private static volatile boolean printing =
+            Boolean.getBoolean("farmerhub.benchmark") || Boolean.getBoolean("farmerhub.startupTimes");
+
+    private StartupTimer() {
+    }
+
+    /** When this class was first used, which FarmerHubApp arranges to be at class load. */
+    public static long launchNanos() {
+        return LAUNCH_NANOS;
+    }
+
+    /** A start timestamp for {@link #phase}. */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /** Prints each phase as it finishes (off by default; see the class comment). */
+    public static void setPrinting(boolean print) {
+        printing = print;
+    }
+
+    /** Records a finished phase that began at {@code startNanos}, and prints it if printing is on. */
+    public static void phase(String name, long startNanos) {
+        long end = System.nanoTime();
+        synchronized (phases) {
+            phases.put(name, new long[]{end - startNanos, end - LAUNCH_NANOS});
+        }
+        if (!printing) return;
+        System.out.printf("Startup: %-24s %7.1f ms (done at %7.1f ms)%n", name,
+                (end - startNanos) / 1e6, (end - LAUNCH_NANOS) / 1e6);
+    }
+
+    /** Milliseconds from launch to the end of each recorded phase, in the order they finished. */
+    public static Map<String, Double> finishTimes() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        synchronized (phases) {
+            for (Map.Entry<String, long[]> e : phases.entrySet()) {
+                result.put(e.getKey(), e.getValue()[1] / 1e6);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Every translatable UI string, in the order the translation table is filled. The ordinal is
+ * the column index into {@link Localizer}'s per-language tables, so lookups are array reads.
+ */
+public enum TextKey {
+    // Title bar and login
+    AppTitle, Tagline, LoginTitle, Username, LoginId, Password, LoginBtn, SignupBtn,
+    ForgotPassBtn, ResetTitle, ResetPrompt, ResetSuccess, UserNotFound,
+
+    // Signup
+    SignupTitle, NewUser, Email, NewPass, ConfirmPass, RegisterBtn, BackBtn,
+    PassReq, PassRule, EmailReq,
+
+    // Dashboard and menu
+    DashboardTitle, ProfileBtn, CartBtn, Feature1, Feature2, Feature3, Feature4, Feature5,
+    LogoutBtn, Help, Settings, ProvisionAccounts,
+
+    // Marketplace (the four category keys match the engine's category names)
+    MarketplaceTitle, Category, All, Fruits, Vegetables, Grains, Search, AddCart, UnitPrice,
+    SortBy, SortListed, SortCheapest, SortDearest, PriceRange,
+
+    // Sell product
+    SellTitle, ProductName, Description, Photo, ChoosePhoto, ListBtn, ImportBtn,
+
+    // Cart
+    CartTitle, Item, Qty, PriceCol, Total, Subtotal, CheckoutBtn, EmptyCart,
+
+    // Profile and My Posts
+    ProfileTitle, RegisteredEmail, MyPostsTitle, CategoryCol, NoPosts,
+
+    // Market stats
+    StatsListings, StatsLowest, StatsMedian, StatsAverage, StatsP90, StatsHighest, StatsNote
+}
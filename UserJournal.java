@@ -0,0 +1,355 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log for user accounts.
+ *
+ * Each signup appends one small checksummed record to {@code <base>.wal}. A background
+ * flusher thread group-commits them: appenders that arrive within the same window share a
+ * single fsync, so durability costs O(1) per signup no matter how many users exist.
+ * When the log grows past {@link #COMPACT_AFTER_RECORDS} (or {@link #COMPACT_ON_CLOSE_RECORDS}
+ * at close) the full user set is written to {@code <base>.snap} and the log is truncated.
+ * Startup replays snapshot + log.
+ *
+ * Record layout: int payloadLength, int crc32(payload), payload. Payload: byte op, then the
+ * username, password and email as modified UTF-8. A torn or corrupt tail record (a crash in
+ * the middle of a write) ends the replay and is cut off.
+ */
+public class UserJournal implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x46485553; // "FHUS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final byte OP_PUT = 1;
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    // Group-commit window: how long the flusher waits for more appends before one fsync
+    private static final long FSYNC_WINDOW_MS = 2;
+    private static final int COMPACT_AFTER_RECORDS = 50_000;
+    // On close a short log is just synced; replaying it at the next start is cheaper than a full snapshot
+    private static final int COMPACT_ON_CLOSE_RECORDS = 1_000;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final FileChannel channel;
+    private final Supplier<Collection<FarmerHubApp.UserData>> snapshotSource;
+    private final Thread flusher;
+
+    // --- Guarded by lock ---
+    private final Object lock = new Object();
+    private long appendedSeq = 0;
+    private long durableSeq = 0;
+    private int recordsSinceSnapshot = 0;
+    private IOException flushFailure;
+    private boolean closed = false;
+
+    private UserJournal(Path snapshotPath, Path journalPath, FileChannel channel,
+                        Supplier<Collection<FarmerHubApp.UserData>> snapshotSource, int tailRecords) {
+        this.snapshotPath = snapshotPath;
+        this.journalPath = journalPath;
+        this.channel = channel;
+        this.snapshotSource = snapshotSource;
+        this.recordsSinceSnapshot = tailRecords;
+        this.flusher = new Thread(this::flushLoop, "FarmerHub-UserJournal");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Replays {@code <base>.snap} and {@code <base>.wal} into {@code replay}, then opens the log
+     * for appending. {@code snapshotSource} must return every current user; it is called during
+     * compaction while appends are blocked.
+     */
+    public static UserJournal open(String basePath, Consumer<FarmerHubApp.UserData> replay,
+                                   Supplier<Collection<FarmerHubApp.UserData>> snapshotSource) throws IOException {
+        Path snapshotPath = Paths.get(basePath + ".snap");
+        Path journalPath = Paths.get(basePath + ".wal");
+
+        if (Files.exists(snapshotPath)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+                if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                    throw new IOException("Not a FarmerHub user snapshot: " + snapshotPath);
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] payload = readPayload(in);
+                    if (payload == null) throw new IOException("Truncated user snapshot: " + snapshotPath);
+                    replay.accept(decode(payload));
+                }
+            }
+        }
+
+        int tailRecords = 0;
+        long validEnd = 0;
+        if (Files.exists(journalPath)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath)))) {
+                byte[] payload;
+                while ((payload = readPayload(in)) != null) {
+                    replay.accept(decode(payload));
+                    tailRecords++;
+                    validEnd += 8 + payload.length;
+                }
+            }
+        }
+
+        // Drop any torn tail so new records start right after the last good one
+        FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validEnd) {
+            System.err.println("User journal: discarding " + (channel.size() - validEnd) + " bytes of incomplete tail.");
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        return new UserJournal(snapshotPath, journalPath, channel, snapshotSource, tailRecords);
+    }
+
+    // ------------------------------------------------------------------
+    // *** Appending (group commit) ***
+    // ------------------------------------------------------------------
+
+    /** Appends one account and returns once it has been fsynced (possibly together with others). */
+    public void append(FarmerHubApp.UserData user) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap(encode(user));
+        long seq;
+        synchronized (lock) {
+            ensureOpen();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            seq = ++appendedSeq;
+            recordsSinceSnapshot++;
+            lock.notifyAll(); // Wake the flusher
+        }
+        awaitDurable(seq);
+    }
+
+    /** Appends several accounts with one write and returns once they have been fsynced together. */
+    public void appendAll(Collection<FarmerHubApp.UserData> users) throws IOException {
+        if (users.isEmpty()) return;
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(users.size() * 64);
+        for (FarmerHubApp.UserData user : users) {
+            batch.write(encode(user));
+        }
+        ByteBuffer records = ByteBuffer.wrap(batch.toByteArray());
+        long seq;
+        synchronized (lock) {
+            ensureOpen();
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            seq = ++appendedSeq;
+            recordsSinceSnapshot += users.size();
+            lock.notifyAll(); // Wake the flusher
+        }
+        awaitDurable(seq);
+    }
+
+    private void awaitDurable(long seq) throws IOException {
+        synchronized (lock) {
+            while (durableSeq < seq) {
+                if (flushFailure != null) throw flushFailure;
+                if (closed) throw new IOException("User journal closed before the record was flushed");
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for user journal fsync");
+                }
+            }
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (!closed && appendedSeq == durableSeq) {
+                        lock.wait();
+                    }
+                    if (closed) return;
+                }
+                // Let concurrent signups pile up so they share this fsync
+                Thread.sleep(FSYNC_WINDOW_MS);
+
+                long target;
+                synchronized (lock) {
+                    target = appendedSeq;
+                }
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    synchronized (lock) {
+                        flushFailure = e;
+                        lock.notifyAll();
+                    }
+                    return;
+                }
+                boolean compact;
+                synchronized (lock) {
+                    durableSeq = Math.max(durableSeq, target);
+                    compact = recordsSinceSnapshot >= COMPACT_AFTER_RECORDS;
+                    lock.notifyAll();
+                }
+                if (compact) {
+                    try {
+                        compact();
+                    } catch (IOException e) {
+                        System.err.println("User journal compaction failed: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // *** Compaction ***
+    // ------------------------------------------------------------------
+
+    /**
+     * Writes every current user to a fresh snapshot and empties the log. Appends are blocked
+     * meanwhile, so each account ends up in the new snapshot, the new log, or both (replay is idempotent).
+     */
+    public void compact() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            writeSnapshot(snapshotSource.get());
+            // Only now that the new snapshot is durable may the log it replaces go
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            recordsSinceSnapshot = 0;
+            // Anything appended so far is in the snapshot now
+            durableSeq = appendedSeq;
+            lock.notifyAll();
+        }
+    }
+
+    private void writeSnapshot(Collection<FarmerHubApp.UserData> users) throws IOException {
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16));
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(SNAPSHOT_VERSION);
+            data.writeInt(users.size());
+            for (FarmerHubApp.UserData user : users) {
+                data.write(encode(user));
+            }
+            data.flush();
+            out.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(snapshotPath.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Makes a rename in {@code dir} durable: the rename is a change to the directory, which an
+     * fsync of the file does not cover. Windows cannot open a directory; NTFS journals renames.
+     */
+    private static void syncDirectory(Path dir) throws IOException {
+        if (WINDOWS) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /** Final fsync (and compaction if the log is long); further appends fail. */
+    @Override
+    public void close() throws IOException {
+        boolean compact;
+        long target;
+        synchronized (lock) {
+            if (closed) return;
+            compact = recordsSinceSnapshot >= COMPACT_ON_CLOSE_RECORDS;
+            target = appendedSeq;
+        }
+        try {
+            if (compact) {
+                compact();
+            } else {
+                channel.force(false);
+                // Publish like the flusher does, so appenders still waiting see their record as durable
+                synchronized (lock) {
+                    durableSeq = Math.max(durableSeq, target);
+                    lock.notifyAll();
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                closed = true;
+                lock.notifyAll();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    public long pendingRecords() {
+        synchronized (lock) {
+            return appendedSeq - durableSeq;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("User journal is closed: " + journalPath);
+        if (flushFailure != null) throw flushFailure;
+    }
+
+    // ------------------------------------------------------------------
+    // *** Record encoding ***
+    // ------------------------------------------------------------------
+
+    private static byte[] encode(FarmerHubApp.UserData user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // length, patched below
+        out.writeInt(0); // crc, patched below
+        out.writeByte(OP_PUT);
+        out.writeUTF(user.username);
+        out.writeUTF(user.password);
+        out.writeUTF(user.email);
+        byte[] record = bytes.toByteArray();
+
+        int payloadLength = record.length - 8;
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, payloadLength);
+        ByteBuffer.wrap(record).putInt(0, payloadLength).putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    /** Reads one record's payload, or returns null at end of input or at a torn/corrupt record. */
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        byte[] payload;
+        int expectedCrc;
+        try {
+            int length = in.readInt();
+            expectedCrc = in.readInt();
+            if (length <= 0 || length > (1 << 20)) return null;
+            payload = new byte[length];
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != expectedCrc || payload[0] != OP_PUT) return null;
+        return payload;
+    }
+
+    private static FarmerHubApp.UserData decode(byte[] payload) throws IOException {
+        DataInputStream fields = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1));
+        return new FarmerHubApp.UserData(fields.readUTF(), fields.readUTF(), fields.readUTF());
+    }
+}
@@ -0,0 +1,55 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic sample data for the benchmarks. Product {@code i} and user {@code i} are the
+ * same on every run, so results from different releases compare like for like.
+ */
+final class BenchmarkData {
+
+    static final int SELLERS = 500;
+
+    private static final String[] PRODUCE = {"Tomato", "Onion", "Mango", "Banana", "Rice", "Wheat",
+            "Potato", "Chilli", "Brinjal", "Millet", "Guava", "Okra"};
+    private static final String[] VILLAGES = {"Guntur", "Nashik", "Salem", "Warangal", "Mandya", "Indore"};
+
+    private BenchmarkData() {
+    }
+
+    static FarmerHubApp.Product product(int i) {
+        String produce = PRODUCE[i % PRODUCE.length];
+        String village = VILLAGES[(i / PRODUCE.length) % VILLAGES.length];
+        return new FarmerHubApp.Product(produce + " lot " + i,
+                "Fresh " + produce.toLowerCase() + " from " + village + ", harvested this week",
+                MarketplaceEngine.CATEGORIES.get(i % MarketplaceEngine.CATEGORIES.size()),
+                Money.rupees(10 + i % 490),
+                seller(i % SELLERS));
+    }
+
+    static String seller(int i) {
+        return "farmer" + i;
+    }
+
+    static FarmerHubApp.UserData user(int i) {
+        return new FarmerHubApp.UserData("user" + i, "Passw0rd#" + i, "user" + i + "@farmerhub.test");
+    }
+
+    /** A catalog of {@code size} products, held in memory only. */
+    static MarketplaceEngine catalog(int size) {
+        MarketplaceEngine engine = new MarketplaceEngine();
+        for (int i = 0; i < size; i++) {
+            engine.listProduct(product(i));
+        }
+        return engine;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Adding to a cart that already holds many lines, and reading its subtotal. {@code addToCart}
+ * is measured as the app performs it: the cart update plus the cart table row update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    int cartLines;
+
+    MarketplaceEngine engine;
+    MarketplaceEngine.Cart cart;
+    CartTableModel model;
+    FarmerHubApp.Product[] inCart;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = BenchmarkData.catalog(cartLines);
+        cart = engine.openCart();
+        model = new CartTableModel();
+        inCart = new FarmerHubApp.Product[cartLines];
+        for (int i = 0; i < cartLines; i++) {
+            inCart[i] = engine.productById(i);
+            model.setQuantity(inCart[i], cart.add(inCart[i]));
+        }
+    }
+
+    /** One more unit of a product already in the cart (the common case). */
+    @Benchmark
+    public int addToCartExistingLine() {
+        FarmerHubApp.Product p = inCart[next++ % cartLines];
+        int quantity = cart.add(p);
+        model.setQuantity(p, quantity);
+        return quantity;
+    }
+
+    /** The maintained subtotal shown under the cart table. */
+    @Benchmark
+    public long subtotal() {
+        return cart.subtotal();
+    }
+
+    /** Recomputing the subtotal from the lines, as the cart screen used to on every refresh. */
+    @Benchmark
+    public long subtotalFromLines() {
+        long total = 0;
+        for (FarmerHubApp.CartItem item : cart.items()) {
+            total += item.getTotalPrice();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Catalog reads behind the marketplace screen: the category filter ({@code filterProducts}),
+ * the seller index (My Posts) and full-text search, across catalog sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+
+    // The grid shows about this many cards per screen; filterProducts hands it the list to page through
+    private static final int FIRST_SCREEN = 24;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int catalogSize;
+
+    MarketplaceEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = BenchmarkData.catalog(catalogSize);
+    }
+
+    /** What filterProducts does for a category button: build the view and read the first screen. */
+    @Benchmark
+    public void filterCategory(Blackhole bh) {
+        firstScreen(engine.browse("Vegetables"), bh);
+    }
+
+    @Benchmark
+    public void filterAll(Blackhole bh) {
+        firstScreen(engine.browse(MarketplaceEngine.ALL_CATEGORIES), bh);
+    }
+
+    /** Reads every product in a category, e.g. to scroll to the end of the grid. */
+    @Benchmark
+    public long scanCategory() {
+        long sum = 0;
+        for (FarmerHubApp.Product p : engine.browse("Grains")) {
+            sum += p.pricePaise;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<FarmerHubApp.Product> sellerPosts() {
+        return engine.productsBySeller(BenchmarkData.seller(7));
+    }
+
+    @Benchmark
+    public void search(Blackhole bh) {
+        firstScreen(engine.search("fresh mango guntur", 50), bh);
+    }
+
+    private static void firstScreen(List<FarmerHubApp.Product> products, Blackhole bh) {
+        int n = Math.min(FIRST_SCREEN, products.size());
+        for (int i = 0; i < n; i++) {
+            bh.consume(products.get(i));
+        }
+        bh.consume(products.size());
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Login lookups by username and by email address, across user counts. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    // Keys are precomputed so the benchmark measures the lookup, not string building
+    private static final int KEYS = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    int userCount;
+
+    MarketplaceEngine engine;
+    String[] usernames = new String[KEYS];
+    String[] emails = new String[KEYS];
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new MarketplaceEngine();
+        for (int i = 0; i < userCount; i++) {
+            engine.registerUser(BenchmarkData.user(i));
+        }
+        for (int k = 0; k < KEYS; k++) {
+            FarmerHubApp.UserData user = BenchmarkData.user((int) ((k * 2654435761L) % userCount));
+            usernames[k] = user.username;
+            emails[k] = user.email.toUpperCase(); // Logins are case-insensitive
+        }
+    }
+
+    @Benchmark
+    public FarmerHubApp.UserData byUsername(Cursor cursor) {
+        return engine.findUser(usernames[cursor.next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public FarmerHubApp.UserData byEmail(Cursor cursor) {
+        return engine.findUserByEmail(emails[cursor.next++ & (KEYS - 1)]);
+    }
+
+    /** The login screen path for an email address: username lookup misses, then the email index hits. */
+    @Benchmark
+    public FarmerHubApp.UserData loginWithEmail(Cursor cursor) {
+        return engine.findUserByLogin(emails[cursor.next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public FarmerHubApp.UserData unknownUser() {
+        return engine.findUserByLogin("nobody@farmerhub.test");
+    }
+}
@@ -0,0 +1,61 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Saving and loading every account, at 10k, 100k and 1M users. Saving is what
+ * {@code saveUsersToFile} does on exit once the journal is long (a full snapshot, fsynced);
+ * loading is {@code loadUsersFromFile} (snapshot replay into the username and email indexes).
+ * Each operation is long, so they are timed one at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserStoreBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int userCount;
+
+    Path dir;
+    String loadBase;
+    UserJournal saver;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("farmerhub-jmh");
+        List<FarmerHubApp.UserData> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(BenchmarkData.user(i));
+        }
+        loadBase = dir.resolve("load").toString();
+        try (UserJournal journal = UserJournal.open(loadBase, u -> { }, () -> users)) {
+            journal.compact();
+        }
+        saver = UserJournal.open(dir.resolve("save").toString(), u -> { }, () -> users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        saver.close();
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        saver.compact();
+    }
+
+    @Benchmark
+    public int load() throws Exception {
+        MarketplaceEngine engine = new MarketplaceEngine();
+        engine.openUserJournal(loadBase, null);
+        engine.closeUserJournal();
+        return engine.userCount();
+    }
+}
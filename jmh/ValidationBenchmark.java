@@ -0,0 +1,28 @@
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** The sign-up validators on typical valid and invalid input. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final String[] PASSWORDS = {"Harvest#2024", "Kisan@Guntur9", "password", "SHORT1#", "NoDigits#Here", "Mango2024Sweet"};
+    private static final String[] EMAILS = {"ramesh.k@farmerhub.in", "lakshmi_92@gmail.com", "seller@agri.coop.in",
+            "not-an-email", "farmer@nodot", "name@@farmerhub.in"};
+
+    int next;
+
+    @Benchmark
+    public boolean password() {
+        return AccountValidation.isValidPassword(PASSWORDS[next++ % PASSWORDS.length]);
+    }
+
+    @Benchmark
+    public boolean email() {
+        return AccountValidation.isValidEmail(EMAILS[next++ % EMAILS.length]);
+    }
+}
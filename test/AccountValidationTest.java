@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/** The hand-written scans must accept exactly what the two regular expressions accept. */
+class AccountValidationTest {
+
+    private static final Pattern PASSWORD = Pattern.compile(AccountValidation.PASSWORD_REGEX);
+    private static final Pattern EMAIL = Pattern.compile(AccountValidation.EMAIL_REGEX);
+
+    // Every character class the rules care about, plus characters neither rule allows
+    private static final String ALPHABET = "aZz09Aq.@_%+-#$^&=!~ \t\n\r\u0085 é🌾";
+
+    private static final String[] EDGE_CASES = {
+        "", "a", "@", ".", "a@b.co", "a@b.c", "a@b.cdefgh", "a@b.cdefghi", "@b.co", "a@.co", "a@b..co",
+        "a@b.co.", "a@b.c0", "a@b-c.d-e.fg", "a.b%c+d_e-f@x.yz", "a@@b.co", "a@b@c.co", "a_b@c_d.ef",
+        "a+b@c+d.ef", "a%b@c.de", "A@B.CO", "a@b.co\n", "\na@b.co", "a @b.co", "a@b.co ", "é@b.co",
+        "Passw0rd#", "Passw0rd", "password#1", "PASSWORD#1", "Pa#1", "Pa#1234", "Pa#12345", "Pa#1234\n",
+        "Pa#12345\n", "Pa#1\n2345", "Pa#1\r2345", "Pa#1 2345", "Pa#1\u00852345", "Pa#1🌾23",
+        "Pa#1🌾234", "Pa#1234\ud83c", "Pa#1234\udf3e", "\udf3e\ud83cPa#123", "        A1=",
+        "Ab1@Ab1@", "Ab1&xxxx", "Ab1^xxxx", "Ab1!xxxx", "Ab1~xxxx", "Ab1+xxxx", "Ab1=xxxx", "Ab1%xxxx", "Ab1$xxxx",
+    };
+
+    @Test
+    void edgeCasesMatchTheRegexes() {
+        for (String input : EDGE_CASES) {
+            check(input);
+        }
+    }
+
+    @Test
+    void generatedInputsMatchTheRegexes() {
+        Random random = new Random(2024);
+        StringBuilder input = new StringBuilder();
+        for (int round = 0; round < 200_000; round++) {
+            input.setLength(0);
+            int length = random.nextInt(14);
+            for (int i = 0; i < length; i++) {
+                input.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            check(input.toString());
+        }
+    }
+
+    @Test
+    void generatedEmailShapesMatchTheRegex() {
+        // Random strings rarely look like an address, so also build local@domain.tld from parts
+        Random random = new Random(7);
+        String[] parts = {"", "a", "Z9", "x.y", "_", "%", "+", "-", ".", "..", "@", "b-c", "q_", "é", " "};
+        String[] tlds = {"", "c", "co", "com", "museum", "travels", "c0", "C", "in.", ".in"};
+        for (int round = 0; round < 100_000; round++) {
+            String email = parts[random.nextInt(parts.length)] + parts[random.nextInt(parts.length)] + "@"
+                    + parts[random.nextInt(parts.length)] + parts[random.nextInt(parts.length)] + "."
+                    + tlds[random.nextInt(tlds.length)];
+            check(email);
+        }
+    }
+
+    private static void check(String input) {
+        assertEquals(PASSWORD.matcher(input).matches(), AccountValidation.isValidPassword(input),
+                () -> "password " + escape(input));
+        assertEquals(EMAIL.matcher(input).matches(), AccountValidation.isValidEmail(input),
+                () -> "email " + escape(input));
+    }
+
+    private static String escape(String input) {
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : input.toCharArray()) {
+            if (c >= ' ' && c < 0x7f) out.append(c); else out.append(String.format("\\u%04x", (int) c));
+        }
+        return out.append('"').toString();
+    }
+}
@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void formatsWithIndianGrouping() {
+        assertEquals("₹0.00", Money.format(0));
+        assertEquals("₹0.05", Money.format(5));
+        assertEquals("₹999.00", Money.format(99_900));
+        assertEquals("₹1,000.00", Money.format(100_000));
+        assertEquals("₹12,345.60", Money.format(1_234_560));
+        assertEquals("₹1,00,000.00", Money.format(10_000_000));
+        assertEquals("₹1,23,45,678.90", Money.format(1_234_567_890));
+        assertEquals("-₹1,50,000.50", Money.format(-15_000_050));
+    }
+
+    @Test
+    void formatsTheExtremes() {
+        assertEquals("₹92,23,37,20,36,85,47,758.07", Money.format(Long.MAX_VALUE));
+        assertEquals("-₹92,23,37,20,36,85,47,758.08", Money.format(Long.MIN_VALUE));
+    }
+
+    @Test
+    void cachedAndAppendedTextAgree() {
+        for (long paise = -250_000; paise <= 250_000; paise += 997) {
+            String first = Money.format(paise);
+            assertEquals(first, Money.format(paise));
+            assertEquals(first, Money.appendTo(new StringBuilder(), paise).toString());
+        }
+    }
+
+    @Test
+    void parsesPlainAndGroupedAmounts() {
+        assertEquals(15_000, Money.parse("150"));
+        assertEquals(1_250, Money.parse("12.5"));
+        assertEquals(1_205, Money.parse("12.05"));
+        assertEquals(120_075, Money.parse("1,200.75"));
+        assertEquals(123_456_700, Money.parse("1,234,567"));
+        assertEquals(15_000_000, Money.parse("1,50,000"));
+        assertEquals(123_456_700, Money.parse("12,34,567"));
+        assertEquals(4_000, Money.parse("  40 "));
+    }
+
+    @Test
+    void parseRoundTripsFormat() {
+        for (long paise : new long[] {1, 99, 100_000, 1_234_567_890, 987_654_321_012L}) {
+            assertEquals(paise, Money.parse(Money.format(paise).substring(1)));
+        }
+    }
+
+    @Test
+    void parseRejectsMalformedAmounts() {
+        for (String text : new String[] {"", "abc", "-5", "+5", "1e3", "1.234", "12.", ".5",
+                "1,2", "12,34", "1,23,4567", "1234,567", ",100", "100,", "1,,000", "₹100", "9223372036854775808"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(text), text);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PriceIndexTest {
+
+    /** Enough listings that every order spans many leaves and splits in the middle. */
+    private static final int LISTINGS = 5_000;
+
+    @Test
+    void emptyIndexFindsNothing() {
+        PriceIndex index = new PriceIndex();
+        assertArrayEquals(new int[0], index.range(null, 0, Long.MAX_VALUE, false, 10));
+        assertArrayEquals(new int[0], index.range("Fruits", 0, Long.MAX_VALUE, true, 10));
+        assertEquals(0, index.count(null, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void randomInsertsMatchASortedScan() {
+        Random random = new Random(42);
+        long[] prices = new long[LISTINGS];
+        String[] categories = new String[LISTINGS];
+        PriceIndex index = new PriceIndex();
+        for (int id = 0; id < LISTINGS; id++) {
+            prices[id] = random.nextInt(500) * 100L; // Many equal prices, so ties are ordered by id
+            categories[id] = category(random.nextInt(MarketplaceEngine.CATEGORIES.size()));
+            index.add(categories[id], prices[id], id);
+        }
+        checkAgainstScan(index, prices, categories, random);
+    }
+
+    @Test
+    void risingAndFallingInsertsMatchASortedScan() {
+        long[] prices = new long[LISTINGS];
+        String[] categories = new String[LISTINGS];
+        PriceIndex index = new PriceIndex();
+        for (int id = 0; id < LISTINGS; id++) {
+            // First half rising (fills leaves at the end), second half falling (splits at the front)
+            prices[id] = id < LISTINGS / 2 ? id * 10L : (LISTINGS - id) * 10L - 5;
+            categories[id] = category(id);
+            index.add(categories[id], prices[id], id);
+        }
+        checkAgainstScan(index, prices, categories, new Random(7));
+    }
+
+    @Test
+    void bulkLoadMatchesInserts() {
+        Random random = new Random(3);
+        long[] prices = new long[LISTINGS];
+        String[] categories = new String[LISTINGS];
+        for (int id = 0; id < LISTINGS; id++) {
+            prices[id] = random.nextInt(1_000_000);
+            categories[id] = category(random.nextInt(MarketplaceEngine.CATEGORIES.size()));
+        }
+        PriceIndex index = new PriceIndex();
+        index.load(categories, prices, LISTINGS);
+        checkAgainstScan(index, prices, categories, random);
+    }
+
+    @Test
+    void bulkLoadFallsBackForHugePrices() {
+        long[] prices = {Long.MAX_VALUE, 5, Long.MAX_VALUE - 1, 0};
+        String[] categories = {"Fruits", "Fruits", "Grains", "Grains"};
+        PriceIndex index = new PriceIndex();
+        index.load(categories, prices, prices.length);
+        assertArrayEquals(new int[] {3, 1, 2, 0}, index.range(null, 0, Long.MAX_VALUE, false, 10));
+        assertArrayEquals(new int[] {2, 3}, index.range("Grains", 0, Long.MAX_VALUE, true, 10));
+    }
+
+    @Test
+    void rangeHonoursLimitAndEmptyBounds() {
+        PriceIndex index = new PriceIndex();
+        for (int id = 0; id < 1_000; id++) {
+            index.add("Grains", id * 100L, id);
+        }
+        assertArrayEquals(new int[] {10, 11, 12}, index.range("Grains", 1_000, 5_000, false, 3));
+        assertArrayEquals(new int[] {50, 49, 48}, index.range("Grains", 1_000, 5_000, true, 3));
+        assertArrayEquals(new int[0], index.range("Grains", 5_000, 1_000, false, 3));
+        assertArrayEquals(new int[0], index.range("Grains", 1_050, 1_099, false, 3));
+        assertArrayEquals(new int[0], index.range("Fruits", 0, Long.MAX_VALUE, false, 3));
+        assertEquals(41, index.count("Grains", 1_000, 5_000));
+        assertEquals(0, index.count("Grains", 5_000, 1_000));
+        assertEquals(1_000, index.count(MarketplaceEngine.ALL_CATEGORIES, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private static String category(int i) {
+        return MarketplaceEngine.CATEGORIES.get(i % MarketplaceEngine.CATEGORIES.size());
+    }
+
+    /** Compares range and count with a brute-force filter and sort, for random bounds. */
+    private static void checkAgainstScan(PriceIndex index, long[] prices, String[] categories, Random random) {
+        String[] orders = {null, "Fruits", "Vegetables", "Grains"};
+        for (int round = 0; round < 200; round++) {
+            String category = orders[random.nextInt(orders.length)];
+            long a = prices[random.nextInt(prices.length)];
+            long b = prices[random.nextInt(prices.length)];
+            long min = Math.min(a, b);
+            long max = Math.max(a, b);
+            int limit = 1 + random.nextInt(prices.length);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 0; id < prices.length; id++) {
+                if ((category == null || category.equals(categories[id])) && prices[id] >= min && prices[id] <= max) {
+                    expected.add(id);
+                }
+            }
+            expected.sort(Comparator.<Integer>comparingLong(id -> prices[id]).thenComparingInt(id -> id));
+            String where = category + " " + min + ".." + max + " limit " + limit;
+
+            assertEquals(expected.size(), index.count(category, min, max), where);
+            int[] ascending = expected.stream().limit(limit).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(ascending, index.range(category, min, max, false, limit), where);
+            int[] descending = new int[Math.min(limit, expected.size())];
+            for (int i = 0; i < descending.length; i++) {
+                descending[i] = expected.get(expected.size() - 1 - i);
+            }
+            assertArrayEquals(descending, index.range(category, min, max, true, limit), where);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UserJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final Map<String, FarmerHubApp.UserData> users = new LinkedHashMap<>();
+
+    private UserJournal open() throws IOException {
+        users.clear();
+        return UserJournal.open(dir.resolve("users").toString(), user -> users.put(user.username, user), users::values);
+    }
+
+    private void add(UserJournal journal, String username) throws IOException {
+        FarmerHubApp.UserData user = new FarmerHubApp.UserData(username, "Secret#1" + username, username + "@farm.in");
+        users.put(username, user);
+        journal.append(user);
+    }
+
+    @Test
+    void replaysAppendedUsers() throws IOException {
+        try (UserJournal journal = open()) {
+            add(journal, "asha");
+            add(journal, "ravi");
+        }
+        open().close();
+        assertEquals("[asha, ravi]", users.keySet().toString());
+        assertEquals("ravi@farm.in", users.get("ravi").email);
+    }
+
+    @Test
+    void compactThenReopenKeepsEveryUser() throws IOException {
+        try (UserJournal journal = open()) {
+            add(journal, "asha");
+            add(journal, "ravi");
+            journal.compact();
+            assertEquals(0, Files.size(dir.resolve("users.wal")));
+            add(journal, "meena");
+        }
+        try (UserJournal journal = open()) {
+            assertEquals("[asha, ravi, meena]", users.keySet().toString());
+            journal.compact();
+        }
+        open().close();
+        assertEquals("[asha, ravi, meena]", users.keySet().toString());
+        assertEquals(false, Files.exists(dir.resolve("users.snap.tmp")));
+    }
+
+    /**
+     * Appends two users and leaves the files as a crash right after the appends would: the log
+     * holds both records (append returns once they are fsynced) and there is no snapshot.
+     */
+    private Path crashAfterTwoSignups() throws IOException {
+        Path wal = dir.resolve("users.wal");
+        byte[] log;
+        try (UserJournal journal = open()) {
+            add(journal, "asha");
+            add(journal, "ravi");
+            log = Files.readAllBytes(wal);
+        }
+        Files.deleteIfExists(dir.resolve("users.snap"));
+        Files.write(wal, log);
+        return wal;
+    }
+
+    @Test
+    void tornTailIsDroppedAndLogStaysAppendable() throws IOException {
+        Path wal = crashAfterTwoSignups();
+        long goodLength = Files.size(wal);
+        // A crash in the middle of a record: the header promises more payload than was written
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(11).putInt(40).putInt(0x12345678).put(new byte[] {1, 0, 5}).flip());
+        }
+
+        try (UserJournal journal = open()) {
+            assertEquals("[asha, ravi]", users.keySet().toString());
+            assertEquals(goodLength, Files.size(wal));
+            add(journal, "meena");
+        }
+        open().close();
+        assertEquals("[asha, ravi, meena]", users.keySet().toString());
+    }
+
+    @Test
+    void corruptRecordEndsTheReplay() throws IOException {
+        Path wal = crashAfterTwoSignups();
+        byte[] bytes = Files.readAllBytes(wal);
+        bytes[bytes.length - 1] ^= 0x20; // Breaks the checksum of the last record
+        Files.write(wal, bytes);
+
+        open().close();
+        assertEquals("[asha]", users.keySet().toString());
+    }
+}